@@ -24,6 +24,8 @@ public class Robot extends TimedRobot {
   @Override
   public void robotPeriodic() {
     CommandScheduler.getInstance().run();
+    m_robotContainer.updateCurrentBudget();
+    m_robotContainer.pollFaults();
   }
 
   @Override
@@ -7,6 +7,8 @@ import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.Commands;
 import edu.wpi.first.wpilibj2.command.button.CommandXboxController;
+import frc.robot.drive.CurrentBudgetSupervisor;
+import frc.robot.drive.FaultPoller;
 import frc.robot.auto.ChoreoAutos;
 import frc.robot.subsystems.MecanumDriveSubsystem;
 
@@ -15,10 +17,25 @@ public class RobotContainer {
       new CommandXboxController(Constants.OperatorConstants.DRIVER_CONTROLLER_PORT);
 
   private final MecanumDriveSubsystem drive = new MecanumDriveSubsystem();
+  private final CurrentBudgetSupervisor currentBudget =
+      Constants.PowerConstants.ENABLE_CURRENT_BUDGET
+          ? new CurrentBudgetSupervisor(Constants.PowerConstants.TOTAL_CURRENT_BUDGET_AMPS)
+          : null;
+  private final FaultPoller faultPoller =
+      Constants.DiagnosticsConstants.ENABLE_FAULT_POLLING
+          ? new FaultPoller(Constants.DiagnosticsConstants.FAULT_POLL_BUDGET_MS)
+          : null;
 
   private SendableChooser<Command> autoChooser = new SendableChooser<>();
 
   public RobotContainer() {
+    if (currentBudget != null) {
+      // The drive keeps its authority longest; add other mechanisms at NORMAL or LOW
+      drive.registerCurrentBudget(currentBudget, CurrentBudgetSupervisor.Priority.CRITICAL);
+    }
+    if (faultPoller != null) {
+      drive.registerFaults(faultPoller);
+    }
     configureBindings();
     DriverStation.silenceJoystickConnectionWarning(true);
     setupAutoChooser();
@@ -34,6 +51,9 @@ public class RobotContainer {
     driverXbox.start().onTrue(Commands.runOnce(drive::zeroGyro));
     driverXbox.back().onTrue(Commands.runOnce(drive::toggleFieldCentric));
     driverXbox.x().onTrue(Commands.runOnce(drive::resetEncoders));
+
+    // Test mode only: hold Y to characterize the drive, then open the DataLog in the SysId tool
+    driverXbox.y().and(DriverStation::isTest).whileTrue(drive.sysIdDriveMotorCommand());
   }
 
   private void setupAutoChooser() {
@@ -69,4 +89,25 @@ public class RobotContainer {
   public void setMotorBrake(boolean brake) {
     drive.setBrake(brake);
   }
+
+  /** Runs after the subsystems have sampled their inputs for this loop. */
+  public void updateCurrentBudget() {
+    if (currentBudget == null) {
+      return;
+    }
+    currentBudget.update();
+    SmartDashboard.putNumber("Power/FilteredBatteryVolts", currentBudget.getFilteredBatteryVolts());
+    SmartDashboard.putNumber("Power/TotalDrawAmps", currentBudget.getTotalDrawAmps());
+    SmartDashboard.putNumber("Power/AllocatedAmps", currentBudget.getAllocatedAmps());
+  }
+
+  /** Runs last in the loop; reads as many devices as its time budget allows. */
+  public void pollFaults() {
+    if (faultPoller == null) {
+      return;
+    }
+    faultPoller.poll();
+    SmartDashboard.putNumber("Faults/DevicesPolled", faultPoller.getDevicesPolled());
+    SmartDashboard.putNumber("Faults/PollMs", faultPoller.getLastPollMs());
+  }
 }
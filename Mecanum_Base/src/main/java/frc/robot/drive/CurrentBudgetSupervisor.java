@@ -0,0 +1,168 @@
+package frc.robot.drive;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.filter.LinearFilter;
+import edu.wpi.first.wpilibj.RobotController;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.DoubleConsumer;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Hands out current limits across subsystems each loop so the robot sheds load before the RIO
+ * browns out, lowest priority first.
+ *
+ * <p>Every consumer (a motor, or a group of identical motors) registers a priority and a
+ * per-motor limit range. Each loop, {@link #update()} filters the battery voltage and gives each
+ * priority a limit between its minimum and maximum: full while the battery is healthy, ramping to
+ * the minimum as the voltage approaches that priority's margin above the brownout threshold.
+ * {@link Priority#LOW} gives way first and {@link Priority#CRITICAL}, normally the drive, last.
+ * The limits are then allocated from a total budget in priority order, so a high-priority
+ * consumer is never starved by a lower one.
+ *
+ * <p>The budget is in supply current, the current the battery actually delivers. Stator current
+ * can be several times larger at low duty cycle, so a budget summed from stator readings would
+ * shed load that the battery never saw. Talons apply the limits as supply limits. Sparks have
+ * none and apply them to output current, which keeps their draw within the same number, only
+ * more tightly at part throttle (see {@link UniversalMotor#setCurrentLimit(double)}).
+ *
+ * <p>The measured draw is reported but does not feed the allocation: the filtered battery
+ * voltage already reflects the total draw, including loads that never registered, and the
+ * measured currents arrive a CAN frame late and would chase their own limits. The allocation is
+ * a cap on what each consumer may take, not a share of what it took last loop.
+ *
+ * <p>Limits are only pushed when they move by at least {@link #LIMIT_DEADBAND_AMPS}, and
+ * {@link CanMotorWrapper} caches them too, so a steady battery costs no CAN traffic.
+ */
+public class CurrentBudgetSupervisor {
+  /** Shedding order. Each value is where, above brownout, that priority starts giving way. */
+  public enum Priority {
+    CRITICAL(1.5),
+    NORMAL(2.5),
+    LOW(3.5);
+
+    final double rampStartAboveBrownoutVolts;
+
+    Priority(double rampStartAboveBrownoutVolts) {
+      this.rampStartAboveBrownoutVolts = rampStartAboveBrownoutVolts;
+    }
+  }
+
+  /** Voltage span over which a priority goes from its maximum to its minimum limit. */
+  private static final double RAMP_WIDTH_VOLTS = 1.0;
+  private static final double LIMIT_DEADBAND_AMPS = 1.0;
+  private static final double FILTER_TIME_CONSTANT_SECONDS = 0.04;
+  private static final double LOOP_PERIOD_SECONDS = 0.02;
+
+  private static final class Consumer {
+    final String name;
+    final Priority priority;
+    final int motorCount;
+    final double minAmps;
+    final double maxAmps;
+    final DoubleSupplier drawAmps;
+    final DoubleConsumer currentLimit;
+    double lastLimitAmps = Double.NaN;
+
+    Consumer(String name, Priority priority, int motorCount, double minAmps, double maxAmps,
+        DoubleSupplier drawAmps, DoubleConsumer currentLimit) {
+      this.name = name;
+      this.priority = priority;
+      this.motorCount = motorCount;
+      this.minAmps = minAmps;
+      this.maxAmps = maxAmps;
+      this.drawAmps = drawAmps;
+      this.currentLimit = currentLimit;
+    }
+  }
+
+  private final double totalBudgetAmps;
+  private final double brownoutVolts;
+  private final List<Consumer> consumers = new ArrayList<>();
+  private final LinearFilter batteryFilter =
+      LinearFilter.singlePoleIIR(FILTER_TIME_CONSTANT_SECONDS, LOOP_PERIOD_SECONDS);
+  private double filteredBatteryVolts;
+  private double totalDrawAmps = 0.0;
+  private double allocatedAmps = 0.0;
+
+  /** @param totalBudgetAmps combined limit across every registered motor at full battery */
+  public CurrentBudgetSupervisor(double totalBudgetAmps) {
+    this.totalBudgetAmps = totalBudgetAmps;
+    brownoutVolts = RobotController.getBrownoutVoltage();
+    filteredBatteryVolts = RobotController.getBatteryVoltage();
+    batteryFilter.reset(new double[] {filteredBatteryVolts}, new double[] {filteredBatteryVolts});
+  }
+
+  /**
+   * Registers a consumer. Consumers are served in registration order within a priority.
+   *
+   * @param motorCount motors sharing the limit; the budget charges the limit once per motor
+   * @param minAmps per-motor limit at the bottom of this priority's ramp
+   * @param maxAmps per-motor limit with a healthy battery
+   * @param drawAmps present total supply current of these motors, read from an existing snapshot
+   * @param currentLimit receives the new per-motor limit, e.g. {@code motor::setCurrentLimit}
+   */
+  public void register(String name, Priority priority, int motorCount, double minAmps, double maxAmps,
+      DoubleSupplier drawAmps, DoubleConsumer currentLimit) {
+    Consumer consumer = new Consumer(name, priority, motorCount, minAmps, maxAmps, drawAmps, currentLimit);
+    int index = 0;
+    while (index < consumers.size() && consumers.get(index).priority.ordinal() <= priority.ordinal()) {
+      index++;
+    }
+    consumers.add(index, consumer);
+  }
+
+  /** Registers a single motor whose draw is sampled into {@code inputs} each loop. */
+  public void register(String name, Priority priority, UniversalMotor motor, MotorInputs inputs,
+      double minAmps, double maxAmps) {
+    register(name, priority, 1, minAmps, maxAmps, () -> inputs.supplyCurrentAmps, motor::setCurrentLimit);
+  }
+
+  /** Call once per loop, after the consumers have sampled their inputs. */
+  public void update() {
+    filteredBatteryVolts = batteryFilter.calculate(RobotController.getBatteryVoltage());
+    double remaining = totalBudgetAmps;
+    totalDrawAmps = 0.0;
+    for (int i = 0; i < consumers.size(); i++) {
+      Consumer consumer = consumers.get(i);
+      totalDrawAmps += consumer.drawAmps.getAsDouble();
+
+      double rampTop = brownoutVolts + consumer.priority.rampStartAboveBrownoutVolts;
+      double health = MathUtil.clamp((filteredBatteryVolts - (rampTop - RAMP_WIDTH_VOLTS)) / RAMP_WIDTH_VOLTS, 0.0, 1.0);
+      double limit = MathUtil.interpolate(consumer.minAmps, consumer.maxAmps, health);
+      // The minimum is always granted; above it, take only what higher priorities left over
+      limit = MathUtil.clamp(remaining / consumer.motorCount, consumer.minAmps, limit);
+      remaining -= limit * consumer.motorCount;
+
+      if (Double.isNaN(consumer.lastLimitAmps) || Math.abs(limit - consumer.lastLimitAmps) >= LIMIT_DEADBAND_AMPS) {
+        consumer.currentLimit.accept(limit);
+        consumer.lastLimitAmps = limit;
+      }
+    }
+    allocatedAmps = totalBudgetAmps - remaining;
+  }
+
+  public double getFilteredBatteryVolts() {
+    return filteredBatteryVolts;
+  }
+
+  /** Sum of the registered consumers' reported supply current at the last {@link #update()}. */
+  public double getTotalDrawAmps() {
+    return totalDrawAmps;
+  }
+
+  /** Sum of the limits handed out at the last {@link #update()}. */
+  public double getAllocatedAmps() {
+    return allocatedAmps;
+  }
+
+  /** Per-motor limit last sent to the named consumer, or NaN if none has been sent. */
+  public double getLimitAmps(String name) {
+    for (int i = 0; i < consumers.size(); i++) {
+      if (consumers.get(i).name.equals(name)) {
+        return consumers.get(i).lastLimitAmps;
+      }
+    }
+    return Double.NaN;
+  }
+}
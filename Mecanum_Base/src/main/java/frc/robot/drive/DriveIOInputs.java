@@ -0,0 +1,17 @@
+package frc.robot.drive;
+
+import edu.wpi.first.math.kinematics.MecanumDriveWheelPositions;
+import edu.wpi.first.math.kinematics.MecanumDriveWheelSpeeds;
+
+/**
+ * Drive-level snapshot filled by {@link DriveIO#updateInputs(DriveIOInputs)}: wheel speeds and
+ * positions in meters, and when they were measured.
+ *
+ * <p>The subsystem owns one instance and the IO layer overwrites its fields in place every loop,
+ * so reading the drive allocates nothing. Copy a value if it has to outlive the loop.
+ */
+public final class DriveIOInputs {
+  public final MecanumDriveWheelSpeeds wheelSpeeds = new MecanumDriveWheelSpeeds();
+  public final MecanumDriveWheelPositions wheelPositions = new MecanumDriveWheelPositions();
+  public double timestampSeconds = 0.0; // FPGA time the wheel positions were measured
+}
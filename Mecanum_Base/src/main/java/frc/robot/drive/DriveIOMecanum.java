@@ -2,24 +2,47 @@ package frc.robot.drive;
 
 import edu.wpi.first.math.kinematics.MecanumDriveWheelSpeeds;
 import frc.robot.Constants;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.DoubleSupplier;
 
 public class DriveIOMecanum implements DriveIO {
   private final UniversalMotor frontLeft;
   private final UniversalMotor rearLeft;
   private final UniversalMotor frontRight;
   private final UniversalMotor rearRight;
+  private final MotorInputs frontLeftInputs = new MotorInputs();
+  private final MotorInputs rearLeftInputs = new MotorInputs();
+  private final MotorInputs frontRightInputs = new MotorInputs();
+  private final MotorInputs rearRightInputs = new MotorInputs();
+  private final MotorInputs[] motorInputs =
+      new MotorInputs[] {frontLeftInputs, rearLeftInputs, frontRightInputs, rearRightInputs};
+  private final VoltageCompensator voltageCompensator =
+      new VoltageCompensator(Constants.DriveConstants.OPEN_LOOP_NOMINAL_VOLTS);
 
   private final double wheelCircumference;
   private final boolean useSensors;
   private final boolean useClosedLoop;
 
   public DriveIOMecanum() {
-    java.util.Map<String, MotorConfig> configs = MotorConfigLoader.loadConfigs(Constants.DriveConstants.MOTOR_CONFIG_FILE);
+    Map<String, MotorConfig> configs = MotorConfigLoader.loadConfigs(Constants.DriveConstants.MOTOR_CONFIG_FILE);
 
-    frontLeft = MotorFactory.createMotor(configs.get("frontLeft"));
-    rearLeft = MotorFactory.createMotor(configs.get("rearLeft"));
-    frontRight = MotorFactory.createMotor(configs.get("frontRight"));
-    rearRight = MotorFactory.createMotor(configs.get("rearRight"));
+    // Create all four motors first, then push their configs in one parallel batch
+    Map<String, MotorConfig> driveConfigs = new LinkedHashMap<>();
+    for (String name : new String[] {"frontLeft", "rearLeft", "frontRight", "rearRight"}) {
+      MotorConfig config = configs.get(name);
+      if (config == null) {
+        throw new RuntimeException(
+            "Motor \"" + name + "\" not found in " + Constants.DriveConstants.MOTOR_CONFIG_FILE);
+      }
+      driveConfigs.put(name, config);
+    }
+    Map<String, UniversalMotor> motors = MotorFactory.createMotors(driveConfigs);
+
+    frontLeft = motors.get("frontLeft");
+    rearLeft = motors.get("rearLeft");
+    frontRight = motors.get("frontRight");
+    rearRight = motors.get("rearRight");
 
     wheelCircumference = Constants.DriveConstants.WHEEL_CIRCUMFERENCE_METERS;
     useSensors = Constants.DriveConstants.USE_WHEEL_ENCODERS;
@@ -34,6 +57,15 @@ public class DriveIOMecanum implements DriveIO {
     rearRight.setVoltage(rearRightVolts);
   }
 
+  @Override
+  public void setOpenLoop(double frontLeft, double rearLeft, double frontRight, double rearRight) {
+    setVoltages(
+        voltageCompensator.toVolts(frontLeft),
+        voltageCompensator.toVolts(rearLeft),
+        voltageCompensator.toVolts(frontRight),
+        voltageCompensator.toVolts(rearRight));
+  }
+
   @Override
   public void setWheelSpeeds(MecanumDriveWheelSpeeds speeds) {
     if (!useClosedLoop) {
@@ -51,27 +83,30 @@ public class DriveIOMecanum implements DriveIO {
   }
 
   @Override
-  public MecanumDriveWheelSpeeds getWheelSpeeds() {
-    if (!useSensors) {
-      return new MecanumDriveWheelSpeeds();
-    }
-    double fl = frontLeft.getVelocityRps() * wheelCircumference;
-    double rl = rearLeft.getVelocityRps() * wheelCircumference;
-    double fr = frontRight.getVelocityRps() * wheelCircumference;
-    double rr = rearRight.getVelocityRps() * wheelCircumference;
-    return new MecanumDriveWheelSpeeds(fl, fr, rl, rr);
+  public void updateInputs(DriveIOInputs inputs) {
+    frontLeft.updateInputs(frontLeftInputs);
+    rearLeft.updateInputs(rearLeftInputs);
+    frontRight.updateInputs(frontRightInputs);
+    rearRight.updateInputs(rearRightInputs);
+    voltageCompensator.update();
+
+    // Without encoders everything reads zero
+    double metersPerRotation = useSensors ? wheelCircumference : 0.0;
+    inputs.wheelSpeeds.frontLeftMetersPerSecond = frontLeftInputs.velocityRps * metersPerRotation;
+    inputs.wheelSpeeds.rearLeftMetersPerSecond = rearLeftInputs.velocityRps * metersPerRotation;
+    inputs.wheelSpeeds.frontRightMetersPerSecond = frontRightInputs.velocityRps * metersPerRotation;
+    inputs.wheelSpeeds.rearRightMetersPerSecond = rearRightInputs.velocityRps * metersPerRotation;
+    inputs.wheelPositions.frontLeftMeters = frontLeftInputs.positionRotations * metersPerRotation;
+    inputs.wheelPositions.rearLeftMeters = rearLeftInputs.positionRotations * metersPerRotation;
+    inputs.wheelPositions.frontRightMeters = frontRightInputs.positionRotations * metersPerRotation;
+    inputs.wheelPositions.rearRightMeters = rearRightInputs.positionRotations * metersPerRotation;
+    inputs.timestampSeconds = (frontLeftInputs.timestampSeconds + rearLeftInputs.timestampSeconds
+        + frontRightInputs.timestampSeconds + rearRightInputs.timestampSeconds) / 4.0;
   }
 
   @Override
-  public double[] getWheelPositionsMeters() {
-    if (!useSensors) {
-      return new double[] {0.0, 0.0, 0.0, 0.0};
-    }
-    double fl = frontLeft.getPositionRotations() * wheelCircumference;
-    double rl = rearLeft.getPositionRotations() * wheelCircumference;
-    double fr = frontRight.getPositionRotations() * wheelCircumference;
-    double rr = rearRight.getPositionRotations() * wheelCircumference;
-    return new double[] {fl, rl, fr, rr};
+  public MotorInputs[] getMotorInputs() {
+    return motorInputs;
   }
 
   @Override
@@ -101,4 +136,56 @@ public class DriveIOMecanum implements DriveIO {
     frontRight.setBrake(brake);
     rearRight.setBrake(brake);
   }
+
+  @Override
+  public void registerCurrentBudget(
+      CurrentBudgetSupervisor supervisor, CurrentBudgetSupervisor.Priority priority, double minAmps, double maxAmps) {
+    supervisor.register("DriveFrontLeft", priority, frontLeft, frontLeftInputs, minAmps, maxAmps);
+    supervisor.register("DriveRearLeft", priority, rearLeft, rearLeftInputs, minAmps, maxAmps);
+    supervisor.register("DriveFrontRight", priority, frontRight, frontRightInputs, minAmps, maxAmps);
+    supervisor.register("DriveRearRight", priority, rearRight, rearRightInputs, minAmps, maxAmps);
+  }
+
+  @Override
+  public void registerFaults(FaultPoller poller) {
+    poller.register("DriveFrontLeft", frontLeft);
+    poller.register("DriveRearLeft", rearLeft);
+    poller.register("DriveFrontRight", frontRight);
+    poller.register("DriveRearRight", rearRight);
+  }
+
+  @Override
+  public long getFramesSent() {
+    return frontLeft.getFramesSent() + rearLeft.getFramesSent()
+        + frontRight.getFramesSent() + rearRight.getFramesSent();
+  }
+
+  @Override
+  public long getFramesSuppressed() {
+    return frontLeft.getFramesSuppressed() + rearLeft.getFramesSuppressed()
+        + frontRight.getFramesSuppressed() + rearRight.getFramesSuppressed();
+  }
+
+  @Override
+  public void registerSignals(SignalRefreshGroup group) {
+    frontLeft.registerSignals(group);
+    rearLeft.registerSignals(group);
+    frontRight.registerSignals(group);
+    rearRight.registerSignals(group);
+  }
+
+  @Override
+  public DoubleSupplier[] createOdometryPositionSources(SignalRefreshGroup odometrySignals) {
+    UniversalMotor[] motors = new UniversalMotor[] {frontLeft, rearLeft, frontRight, rearRight};
+    DoubleSupplier[] sources = new DoubleSupplier[motors.length];
+    for (int i = 0; i < motors.length; i++) {
+      if (!useSensors) {
+        sources[i] = () -> 0.0;
+        continue;
+      }
+      DoubleSupplier rotations = motors[i].createOdometryPositionSource(odometrySignals);
+      sources[i] = () -> rotations.getAsDouble() * wheelCircumference;
+    }
+    return sources;
+  }
 }
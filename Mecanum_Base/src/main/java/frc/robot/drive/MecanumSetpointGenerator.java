@@ -0,0 +1,131 @@
+package frc.robot.drive;
+
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.math.kinematics.MecanumDriveKinematics;
+import edu.wpi.first.math.kinematics.MecanumDriveWheelSpeeds;
+
+/**
+ * Turns raw chassis commands into wheel speeds the drive can actually reach by the next loop.
+ *
+ * <p>A stick snapped from full forward to full reverse asks every wheel to reverse at once. The
+ * motors answer with a current spike, the wheels slip, and odometry counts distance the robot
+ * never travelled. Each call here moves from the previous setpoint toward the new command by at
+ * most one loop's worth of change:
+ *
+ * <ul>
+ *   <li>the command is scaled down, not clipped, so no wheel exceeds the max wheel speed;
+ *   <li>no wheel's speed changes faster than the max wheel acceleration;
+ *   <li>no wheel's contact patch accelerates faster than the carpet can push it, counting both
+ *       translation and rotation (traction limit).
+ * </ul>
+ *
+ * <p>Every limit scales the whole step by one factor. Wheel speeds are linear in chassis speeds,
+ * so the robot keeps heading toward the commanded motion and only gets there later.
+ */
+public class MecanumSetpointGenerator {
+  private static final double LOOP_PERIOD_SECONDS = 0.02;
+  private static final double GRAVITY_MPS2 = 9.81;
+
+  private final MecanumDriveKinematics kinematics;
+  private final double maxWheelSpeedMps;
+  private final double maxWheelStepMps;
+  private final double maxChassisStepMps;
+  // Distance from the robot's center to its farthest wheel
+  private final double driveRadiusMeters;
+  // Wheel speed per rad/s of rotation about the center, the omega column of the kinematics
+  private final double frontLeftOmegaMeters;
+  private final double frontRightOmegaMeters;
+  private final double rearLeftOmegaMeters;
+  private final double rearRightOmegaMeters;
+  private final MecanumDriveWheelSpeeds setpoint = new MecanumDriveWheelSpeeds();
+  // Chassis speeds of the last setpoint
+  private double vx = 0.0;
+  private double vy = 0.0;
+  private double omega = 0.0;
+
+  /**
+   * @param maxWheelAccelMps2 fastest any wheel's speed may change, from the motors' torque
+   * @param wheelFriction coefficient of friction between wheel and floor; mecanum rollers grip
+   *     only along their 45 degree axis, so the usable acceleration of each wheel's contact patch
+   *     is about {@code wheelFriction * g / sqrt(2)}
+   */
+  public MecanumSetpointGenerator(
+      MecanumDriveKinematics kinematics, double maxWheelSpeedMps, double maxWheelAccelMps2, double wheelFriction) {
+    this.kinematics = kinematics;
+    this.maxWheelSpeedMps = maxWheelSpeedMps;
+    maxWheelStepMps = maxWheelAccelMps2 * LOOP_PERIOD_SECONDS;
+    maxChassisStepMps = wheelFriction * GRAVITY_MPS2 / Math.sqrt(2.0) * LOOP_PERIOD_SECONDS;
+    driveRadiusMeters = Math.max(
+        Math.max(kinematics.getFrontLeft().getNorm(), kinematics.getFrontRight().getNorm()),
+        Math.max(kinematics.getRearLeft().getNorm(), kinematics.getRearRight().getNorm()));
+    frontLeftOmegaMeters = -(kinematics.getFrontLeft().getX() + kinematics.getFrontLeft().getY());
+    frontRightOmegaMeters = kinematics.getFrontRight().getX() - kinematics.getFrontRight().getY();
+    rearLeftOmegaMeters = kinematics.getRearLeft().getX() - kinematics.getRearLeft().getY();
+    rearRightOmegaMeters = -(kinematics.getRearRight().getX() + kinematics.getRearRight().getY());
+  }
+
+  /**
+   * Returns this loop's setpoint on the way to {@code desired}. The result is reused by the
+   * next call; copy it to keep it.
+   */
+  public MecanumDriveWheelSpeeds generate(ChassisSpeeds desired) {
+    // Same as kinematics.toWheelSpeeds(desired), which would allocate a matrix product every loop
+    double vxTarget = desired.vxMetersPerSecond;
+    double vyTarget = desired.vyMetersPerSecond;
+    double omegaTarget = desired.omegaRadiansPerSecond;
+    double frontLeft = vxTarget - vyTarget + omegaTarget * frontLeftOmegaMeters;
+    double frontRight = vxTarget + vyTarget + omegaTarget * frontRightOmegaMeters;
+    double rearLeft = vxTarget + vyTarget + omegaTarget * rearLeftOmegaMeters;
+    double rearRight = vxTarget - vyTarget + omegaTarget * rearRightOmegaMeters;
+
+    // Same as desaturate(), but the chassis target is scaled by the same factor
+    double fastest = Math.max(
+        Math.max(Math.abs(frontLeft), Math.abs(frontRight)), Math.max(Math.abs(rearLeft), Math.abs(rearRight)));
+    double speedScale = fastest > maxWheelSpeedMps ? maxWheelSpeedMps / fastest : 1.0;
+
+    double dFrontLeft = frontLeft * speedScale - setpoint.frontLeftMetersPerSecond;
+    double dFrontRight = frontRight * speedScale - setpoint.frontRightMetersPerSecond;
+    double dRearLeft = rearLeft * speedScale - setpoint.rearLeftMetersPerSecond;
+    double dRearRight = rearRight * speedScale - setpoint.rearRightMetersPerSecond;
+    double dVx = vxTarget * speedScale - vx;
+    double dVy = vyTarget * speedScale - vy;
+    double dOmega = omegaTarget * speedScale - omega;
+
+    double step = 1.0;
+    double largestWheelStep = Math.max(
+        Math.max(Math.abs(dFrontLeft), Math.abs(dFrontRight)), Math.max(Math.abs(dRearLeft), Math.abs(dRearRight)));
+    if (largestWheelStep > maxWheelStepMps) {
+      step = maxWheelStepMps / largestWheelStep;
+    }
+    // A change in rotation accelerates the farthest wheel by dOmega times its radius on top of the
+    // translation, so spinning up while driving can't add slip the translation alone hides
+    double tractionStep = Math.hypot(dVx, dVy) + Math.abs(dOmega) * driveRadiusMeters;
+    if (tractionStep * step > maxChassisStepMps) {
+      step = maxChassisStepMps / tractionStep;
+    }
+
+    setpoint.frontLeftMetersPerSecond += dFrontLeft * step;
+    setpoint.frontRightMetersPerSecond += dFrontRight * step;
+    setpoint.rearLeftMetersPerSecond += dRearLeft * step;
+    setpoint.rearRightMetersPerSecond += dRearRight * step;
+    vx += dVx * step;
+    vy += dVy * step;
+    omega += dOmega * step;
+    return setpoint;
+  }
+
+  /**
+   * Starts the next {@link #generate(ChassisSpeeds)} from the measured wheel speeds, e.g. after
+   * the drive was disabled or run in open loop without this generator.
+   */
+  public void reset(MecanumDriveWheelSpeeds measured) {
+    setpoint.frontLeftMetersPerSecond = measured.frontLeftMetersPerSecond;
+    setpoint.frontRightMetersPerSecond = measured.frontRightMetersPerSecond;
+    setpoint.rearLeftMetersPerSecond = measured.rearLeftMetersPerSecond;
+    setpoint.rearRightMetersPerSecond = measured.rearRightMetersPerSecond;
+    ChassisSpeeds chassis = kinematics.toChassisSpeeds(measured);
+    vx = chassis.vxMetersPerSecond;
+    vy = chassis.vyMetersPerSecond;
+    omega = chassis.omegaRadiansPerSecond;
+  }
+}
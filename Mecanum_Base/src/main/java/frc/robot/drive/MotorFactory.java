@@ -1,19 +1,52 @@
 package frc.robot.drive;
 
+import edu.wpi.first.wpilibj.RobotBase;
 import frc.robot.Constants.DriveConstants.MotorControllerType;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 public final class MotorFactory {
   private MotorFactory() {}
 
+  /** Creates and configures a single motor. Blocks until the configuration is applied. */
   public static UniversalMotor createMotor(MotorConfig config) {
+    UniversalMotor motor = newMotor(config);
+    MotorConfigurator.configureAll(Map.of(config.controllerType + "-" + config.id, motor));
+    return motor;
+  }
+
+  /**
+   * Creates every motor first, then pushes all of their configurations in parallel. Prefer this
+   * over repeated {@link #createMotor} calls when a subsystem owns several motors.
+   *
+   * @param configs motor configs keyed by name; the name is used in the timing report
+   * @return the created motors, keyed and ordered like {@code configs}
+   */
+  public static Map<String, UniversalMotor> createMotors(Map<String, MotorConfig> configs) {
+    Map<String, UniversalMotor> motors = new LinkedHashMap<>();
+    for (Map.Entry<String, MotorConfig> entry : configs.entrySet()) {
+      motors.put(entry.getKey(), newMotor(entry.getValue()));
+    }
+    MotorConfigurator.configureAll(motors);
+    return motors;
+  }
+
+  private static UniversalMotor newMotor(MotorConfig config) {
+    if (RobotBase.isSimulation()) {
+      // Desktop runs get a physics model instead of hardware that isn't there
+      return new SimMotorWrapper(config);
+    }
     MotorControllerType type = config.controllerType;
     switch (type) {
       case SPARK_MAX:
       case SPARK_FLEX:
+        return new SparkMotor(config);
       case TALON_FX:
+        return new TalonFxMotor(config);
       case TALON_FXS:
+        return new TalonFxsMotor(config);
       case TALON_SRX:
-        return new CanMotorWrapper(config);
+        return new TalonSrxMotor(config);
       case PWM_SPARKMAX:
       case PWM_TALONSRX:
       case PWM_VICTORSPX:
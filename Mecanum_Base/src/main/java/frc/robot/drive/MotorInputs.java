@@ -0,0 +1,27 @@
+package frc.robot.drive;
+
+/**
+ * Per-loop snapshot of a motor's sensor readings, filled by
+ * {@link UniversalMotor#updateInputs(MotorInputs)}.
+ *
+ * <p>Allocate one instance per motor and reuse it every cycle. Consumers read these fields
+ * instead of calling the motor getters, so each value costs one vendor read per loop and
+ * there is a single place to log everything the motor reported.
+ *
+ * <p>{@link #timestampSeconds} is when the controller measured the position, not when the
+ * robot code read it: Phoenix 6 motors report the CAN signal's own timestamp, and everything
+ * else falls back to FPGA time at the read. Pose estimators should use it with
+ * {@code updateWithTime}.
+ */
+public final class MotorInputs {
+  public double positionRotations = 0.0;   // Mechanism rotations (after gear ratio)
+  public double velocityRps = 0.0;         // Mechanism rotations per second
+  public double appliedVolts = 0.0;
+  public double currentAmps = 0.0;         // Stator current where available
+  public double supplyCurrentAmps = 0.0;   // Battery-side current; estimated where not measured
+  public double temperatureCelsius = 0.0;
+  public double timestampSeconds = 0.0;    // FPGA time the device measured the sample
+  public double modelTemperatureCelsius = 0.0; // Thermal model estimate; 0 without derating
+  public double currentLimitAmps = 0.0;    // Supply limit last sent at runtime; 0 if never changed
+  public double statorLimitAmps = 0.0;     // Thermally derated stator limit; 0 without derating
+}
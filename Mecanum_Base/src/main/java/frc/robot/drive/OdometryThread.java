@@ -0,0 +1,79 @@
+package frc.robot.drive;
+
+import edu.wpi.first.wpilibj.Notifier;
+import edu.wpi.first.wpilibj.Timer;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Samples wheel positions and gyro yaw faster than the 50 Hz main loop and queues them in an
+ * {@link OdometryBuffer}. The drive subsystem drains the buffer into its pose estimator each
+ * loop, so fast turns are integrated in small steps without lengthening the main loop.
+ *
+ * <p>Phoenix 6 devices register private copies of their signals in this thread's own
+ * {@link SignalRefreshGroup}, raised to the sample rate; other devices are read from their
+ * cached status frames, which only change as fast as those frames arrive.
+ *
+ * <p>Each sample is stamped with when it was measured, not when it was read: Phoenix 6 signals
+ * carry the CAN timestamp of their frame, so bus latency and jitter stay out of the pose
+ * estimator. Sources without one (Sparks, Talon SRX, WPILib gyros) count as read now.
+ */
+public class OdometryThread {
+  private static final int BUFFER_CAPACITY = 32;
+
+  private final SignalRefreshGroup signals = new SignalRefreshGroup();
+  private final DoubleSupplier[] positionSources;
+  private final DoubleSupplier yawSource;
+  private final double[] scratchPositions;
+  private final OdometryBuffer buffer;
+  private final Notifier notifier;
+  private final double periodSeconds;
+  private final int sourceCount;
+
+  public OdometryThread(DriveIO driveIO, GyroIO gyro, double frequencyHz) {
+    positionSources = driveIO.createOdometryPositionSources(signals);
+    yawSource = gyro.createOdometryYawSource(signals);
+    signals.setUpdateFrequency(frequencyHz);
+    sourceCount = positionSources.length + 1;
+    scratchPositions = new double[positionSources.length];
+    buffer = new OdometryBuffer(BUFFER_CAPACITY, positionSources.length);
+    periodSeconds = 1.0 / frequencyHz;
+    notifier = new Notifier(this::sample);
+    notifier.setName("Odometry");
+  }
+
+  public void start() {
+    notifier.startPeriodic(periodSeconds);
+  }
+
+  public void stop() {
+    notifier.stop();
+  }
+
+  /** Main-loop side: copies the oldest queued sample into {@code out}; false when empty. */
+  public boolean poll(OdometryBuffer.Sample out) {
+    return buffer.poll(out);
+  }
+
+  public int getWheelCount() {
+    return positionSources.length;
+  }
+
+  public long getDroppedSamples() {
+    return buffer.getDropped();
+  }
+
+  private void sample() {
+    signals.refreshAll();
+    double timestamp = Timer.getFPGATimestamp();
+    // Every Phoenix source registered one signal; average their CAN times with now for the rest
+    int timedSources = Math.min(signals.size(), sourceCount);
+    if (timedSources > 0) {
+      timestamp = (signals.getTimestampSeconds() * timedSources + timestamp * (sourceCount - timedSources))
+          / sourceCount;
+    }
+    for (int i = 0; i < positionSources.length; i++) {
+      scratchPositions[i] = positionSources[i].getAsDouble();
+    }
+    buffer.offer(timestamp, yawSource.getAsDouble(), scratchPositions);
+  }
+}
@@ -0,0 +1,80 @@
+package frc.robot.drive;
+
+import edu.wpi.first.wpilibj.Timer;
+
+/**
+ * Lumped first-order thermal model of one motor, used to back off its current limit before the
+ * controller's own thermal cutoff trips mid-match.
+ *
+ * <p>The estimate heats with current squared and cools toward ambient. Motor temperature
+ * sensors lag the windings and report in whole degrees, so the measurement only pulls the
+ * estimate slowly toward itself, and the estimate never reads below it. Derating eases in
+ * between the start and limit temperatures, so the allowed current falls smoothly rather than
+ * stepping.
+ */
+public class ThermalModel {
+  private static final double AMBIENT_CELSIUS = 25.0;
+  /** Winding temperature rise per A^2 per second; roughly R / C for a NEO-class motor. */
+  private static final double HEATING_CELSIUS_PER_AMP2_SECOND = 4.0e-4;
+  private static final double COOLING_TIME_CONSTANT_SECONDS = 300.0;
+  /** How quickly the estimate converges on the measured temperature, per second. */
+  private static final double SENSOR_CORRECTION_PER_SECOND = 0.2;
+  private static final double MAX_STEP_SECONDS = 0.1;
+  /** Fraction of the base current limit still allowed at the limit temperature. */
+  private static final double MIN_DERATE_FACTOR = 0.25;
+
+  private final double derateStartCelsius;
+  private final double limitCelsius;
+  private double temperatureCelsius = AMBIENT_CELSIUS;
+  private double derateFactor = 1.0;
+  private double lastUpdateSeconds = -1.0;
+
+  public ThermalModel(double derateStartCelsius, double limitCelsius) {
+    this.derateStartCelsius = derateStartCelsius;
+    this.limitCelsius = limitCelsius;
+  }
+
+  /**
+   * Advances the model to now.
+   *
+   * @param measuredCelsius the device's reading, or 0 / NaN if it has none
+   */
+  public void update(double currentAmps, double measuredCelsius) {
+    double now = Timer.getFPGATimestamp();
+    boolean measured = Double.isFinite(measuredCelsius) && measuredCelsius > 0.0;
+    if (lastUpdateSeconds < 0.0) {
+      temperatureCelsius = measured ? measuredCelsius : AMBIENT_CELSIUS;
+    } else {
+      double dt = Math.min(now - lastUpdateSeconds, MAX_STEP_SECONDS);
+      double heating = HEATING_CELSIUS_PER_AMP2_SECOND * currentAmps * currentAmps;
+      double cooling = (temperatureCelsius - AMBIENT_CELSIUS) / COOLING_TIME_CONSTANT_SECONDS;
+      temperatureCelsius += (heating - cooling) * dt;
+      if (measured) {
+        temperatureCelsius += (measuredCelsius - temperatureCelsius) * SENSOR_CORRECTION_PER_SECOND * dt;
+        temperatureCelsius = Math.max(temperatureCelsius, measuredCelsius);
+      }
+    }
+    lastUpdateSeconds = now;
+
+    double x = (temperatureCelsius - derateStartCelsius) / (limitCelsius - derateStartCelsius);
+    x = Math.max(0.0, Math.min(1.0, x));
+    // Smoothstep, so the limit starts and finishes falling gently
+    double eased = x * x * (3.0 - 2.0 * x);
+    derateFactor = 1.0 - (1.0 - MIN_DERATE_FACTOR) * eased;
+  }
+
+  /** The current limit this model allows, given the limit it would otherwise have. */
+  public double derate(double baseLimitAmps) {
+    return baseLimitAmps * derateFactor;
+  }
+
+  /** Estimated winding temperature. */
+  public double getTemperatureCelsius() {
+    return temperatureCelsius;
+  }
+
+  /** 1 when cool, falling to {@link #MIN_DERATE_FACTOR} at the limit temperature. */
+  public double getDerateFactor() {
+    return derateFactor;
+  }
+}
@@ -1,5 +1,11 @@
 package frc.robot.subsystems;
 
+import static edu.wpi.first.units.Units.Meters;
+import static edu.wpi.first.units.Units.MetersPerSecond;
+import static edu.wpi.first.units.Units.Second;
+import static edu.wpi.first.units.Units.Seconds;
+import static edu.wpi.first.units.Units.Volts;
+
 import com.pathplanner.lib.auto.AutoBuilder;
 import com.pathplanner.lib.commands.PathfindingCommand;
 import com.pathplanner.lib.config.PIDConstants;
@@ -15,23 +21,47 @@ import edu.wpi.first.math.kinematics.MecanumDriveKinematics;
 import edu.wpi.first.math.kinematics.MecanumDriveWheelPositions;
 import edu.wpi.first.math.kinematics.MecanumDriveWheelSpeeds;
 import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.units.measure.MutDistance;
+import edu.wpi.first.units.measure.MutLinearVelocity;
+import edu.wpi.first.units.measure.MutVoltage;
+import edu.wpi.first.units.measure.Voltage;
+import edu.wpi.first.wpilibj.RobotController;
+import edu.wpi.first.wpilibj.sysid.SysIdRoutineLog;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.Commands;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import edu.wpi.first.wpilibj2.command.sysid.SysIdRoutine;
 import frc.robot.Constants;
+import frc.robot.drive.CurrentBudgetSupervisor;
+import frc.robot.drive.FaultPoller;
 import frc.robot.drive.DriveIO;
+import frc.robot.drive.DriveIOInputs;
 import frc.robot.drive.DriveIOMecanum;
 import frc.robot.drive.GyroIO;
 import frc.robot.drive.GyroIOAdis16470;
 import frc.robot.drive.GyroIOAdxrs450;
 import frc.robot.drive.GyroIONone;
 import frc.robot.drive.GyroIOPigeon2;
+import frc.robot.drive.MecanumSetpointGenerator;
+import frc.robot.drive.MotorInputs;
+import frc.robot.drive.OdometryBuffer;
+import frc.robot.drive.OdometryThread;
+import frc.robot.drive.SignalRefreshGroup;
+import frc.robot.utils.AllocationMonitor;
 import frc.robot.vision.Vision;
 import java.util.function.DoubleSupplier;
 
 public class MecanumDriveSubsystem extends SubsystemBase {
+  // Same order as DriveIO.getMotorInputs()
+  private static final String[] MOTOR_NAMES = {"FL", "RL", "FR", "RR"};
+
   private final DriveIO driveIO = new DriveIOMecanum();
   private final GyroIO gyro = createGyro();
+  private final SignalRefreshGroup signals = new SignalRefreshGroup();
+  private final DriveIOInputs inputs = new DriveIOInputs();
+  private final AllocationMonitor inputsAllocation =
+      Constants.LoggingConstants.ENABLE_ALLOCATION_MONITOR ? new AllocationMonitor() : null;
 
   private final MecanumDriveKinematics kinematics = new MecanumDriveKinematics(
       new Translation2d(Constants.DriveConstants.WHEELBASE_METERS / 2.0,
@@ -45,20 +75,50 @@ public class MecanumDriveSubsystem extends SubsystemBase {
 
   private final MecanumDrivePoseEstimator poseEstimator =
       Constants.DriveConstants.USE_WHEEL_ENCODERS && Constants.DriveConstants.USE_GYRO
-          ? new MecanumDrivePoseEstimator(
-              kinematics,
-              gyro.getRotation(),
-              getWheelPositions(),
-              new Pose2d())
+          ? createPoseEstimator()
           : null;
 
   private final Vision vision = Constants.VisionConstants.ENABLE_VISION && poseEstimator != null
       ? new Vision(Constants.VisionConstants.MAX_LATENCY_SECONDS)
       : null;
 
+  private final OdometryThread odometryThread =
+      Constants.DriveConstants.ENABLE_ODOMETRY_THREAD && poseEstimator != null
+          ? new OdometryThread(driveIO, gyro, Constants.DriveConstants.ODOMETRY_FREQUENCY_HZ)
+          : null;
+  private final OdometryBuffer.Sample odometrySample = new OdometryBuffer.Sample(4);
+  private final MecanumDriveWheelPositions odometryWheelPositions = new MecanumDriveWheelPositions();
+
+  // Reused by the SysId log callback, which runs every loop of a test
+  private final MutVoltage sysIdVolts = Volts.mutable(0.0);
+  private final MutDistance sysIdDistance = Meters.mutable(0.0);
+  private final MutLinearVelocity sysIdVelocity = MetersPerSecond.mutable(0.0);
+  private final SysIdRoutine sysIdRoutine = new SysIdRoutine(
+      new SysIdRoutine.Config(
+          Volts.per(Second).of(Constants.DriveConstants.SYSID_RAMP_VOLTS_PER_SECOND),
+          Volts.of(Constants.DriveConstants.SYSID_STEP_VOLTS),
+          Seconds.of(Constants.DriveConstants.SYSID_TIMEOUT_SECONDS)),
+      new SysIdRoutine.Mechanism(this::runSysIdVolts, this::logSysId, this));
+
+  private final MecanumSetpointGenerator setpointGenerator = Constants.DriveConstants.ENABLE_SETPOINT_GENERATOR
+      ? new MecanumSetpointGenerator(
+          kinematics,
+          Constants.DriveConstants.MAX_WHEEL_SPEED_MPS,
+          Constants.DriveConstants.MAX_WHEEL_ACCEL_MPS2,
+          Constants.DriveConstants.WHEEL_FRICTION_COEFFICIENT)
+      : null;
+  // Set whenever the wheels were driven some other way, so the generator restarts from them
+  private boolean setpointStale = true;
+
   private boolean fieldCentric = Constants.DriveConstants.FIELD_CENTRIC_DEFAULT;
 
   public MecanumDriveSubsystem() {
+    driveIO.registerSignals(signals);
+    gyro.registerSignals(signals);
+    if (odometryThread != null) {
+      odometryThread.start();
+    }
+
     if (Constants.AutoConstants.ENABLE_AUTO
         && Constants.AutoConstants.AUTO_MODE == Constants.AutoConstants.AutoMode.PATHPLANNER) {
       setupPathPlanner();
@@ -78,8 +138,17 @@ public class MecanumDriveSubsystem extends SubsystemBase {
   }
 
   public void driveRobotRelative(ChassisSpeeds speeds) {
-    MecanumDriveWheelSpeeds wheelSpeeds = kinematics.toWheelSpeeds(speeds);
-    wheelSpeeds.desaturate(Constants.DriveConstants.MAX_WHEEL_SPEED_MPS);
+    MecanumDriveWheelSpeeds wheelSpeeds;
+    if (setpointGenerator != null) {
+      if (setpointStale) {
+        setpointGenerator.reset(getWheelSpeeds());
+        setpointStale = false;
+      }
+      wheelSpeeds = setpointGenerator.generate(speeds);
+    } else {
+      wheelSpeeds = kinematics.toWheelSpeeds(speeds);
+      wheelSpeeds.desaturate(Constants.DriveConstants.MAX_WHEEL_SPEED_MPS);
+    }
 
     if (Constants.DriveConstants.USE_CLOSED_LOOP) {
       driveIO.setWheelSpeeds(wheelSpeeds);
@@ -88,12 +157,13 @@ public class MecanumDriveSubsystem extends SubsystemBase {
       double fr = wheelSpeeds.frontRightMetersPerSecond / Constants.DriveConstants.MAX_WHEEL_SPEED_MPS;
       double rl = wheelSpeeds.rearLeftMetersPerSecond / Constants.DriveConstants.MAX_WHEEL_SPEED_MPS;
       double rr = wheelSpeeds.rearRightMetersPerSecond / Constants.DriveConstants.MAX_WHEEL_SPEED_MPS;
-      driveIO.setVoltages(fl * 12.0, rl * 12.0, fr * 12.0, rr * 12.0);
+      driveIO.setOpenLoop(fl, rl, fr, rr);
     }
   }
 
   public void stop() {
     driveIO.stop();
+    setpointStale = true;
   }
 
   public void resetEncoders() {
@@ -102,6 +172,10 @@ public class MecanumDriveSubsystem extends SubsystemBase {
 
   public void resetPose(Pose2d pose) {
     if (poseEstimator != null) {
+      if (odometryThread != null) {
+        // Apply queued samples first so none from before the reset land after it
+        drainOdometry();
+      }
       poseEstimator.resetPosition(gyro.getRotation(), getWheelPositions(), pose);
     }
   }
@@ -130,27 +204,57 @@ public class MecanumDriveSubsystem extends SubsystemBase {
     driveIO.setBrake(brake);
   }
 
+  public void registerFaults(FaultPoller poller) {
+    driveIO.registerFaults(poller);
+  }
+
+  public void registerCurrentBudget(CurrentBudgetSupervisor supervisor, CurrentBudgetSupervisor.Priority priority) {
+    driveIO.registerCurrentBudget(
+        supervisor,
+        priority,
+        Constants.PowerConstants.DRIVE_MIN_CURRENT_AMPS,
+        Constants.PowerConstants.DRIVE_MAX_CURRENT_AMPS);
+  }
+
   public MecanumDriveKinematics getKinematics() {
     return kinematics;
   }
 
+  /** This loop's wheel speeds. Updated in place every loop; copy it to keep it. */
   public MecanumDriveWheelSpeeds getWheelSpeeds() {
-    return driveIO.getWheelSpeeds();
+    return inputs.wheelSpeeds;
   }
 
+  /** This loop's wheel positions. Updated in place every loop; copy it to keep it. */
   public MecanumDriveWheelPositions getWheelPositions() {
-    double[] positions = driveIO.getWheelPositionsMeters();
-    return new MecanumDriveWheelPositions(
-        positions[0],
-        positions[2],
-        positions[1],
-        positions[3]);
+    return inputs.wheelPositions;
   }
 
   @Override
   public void periodic() {
+    if (inputsAllocation != null) {
+      inputsAllocation.start();
+    }
+    // Refresh every CAN status signal at once so all samples below line up in time
+    signals.refreshAll();
+    driveIO.updateInputs(inputs);
+    if (inputsAllocation != null) {
+      inputsAllocation.stop();
+    }
+    if (DriverStation.isDisabled()) {
+      // The robot may still be rolling; the first enabled command starts from the measured speeds
+      setpointStale = true;
+    }
+
     if (poseEstimator != null) {
-      poseEstimator.update(gyro.getRotation(), getWheelPositions());
+      if (odometryThread != null) {
+        drainOdometry();
+      } else {
+        Rotation2d heading = gyro.getRotation();
+        // Stamp odometry with when the sensors measured it, so vision fuses against the right pose
+        double timestamp = (inputs.timestampSeconds + gyro.getTimestampSeconds()) / 2.0;
+        poseEstimator.updateWithTime(timestamp, heading, getWheelPositions());
+      }
       if (vision != null) {
         vision.addVisionMeasurements(poseEstimator);
       }
@@ -166,6 +270,49 @@ public class MecanumDriveSubsystem extends SubsystemBase {
       SmartDashboard.putNumber("Drive/FR Speed", speeds.frontRightMetersPerSecond);
       SmartDashboard.putNumber("Drive/RL Speed", speeds.rearLeftMetersPerSecond);
       SmartDashboard.putNumber("Drive/RR Speed", speeds.rearRightMetersPerSecond);
+      MotorInputs[] motorInputs = driveIO.getMotorInputs();
+      for (int i = 0; i < motorInputs.length; i++) {
+        SmartDashboard.putNumber("Drive/" + MOTOR_NAMES[i] + " Volts", motorInputs[i].appliedVolts);
+        SmartDashboard.putNumber("Drive/" + MOTOR_NAMES[i] + " Current", motorInputs[i].currentAmps);
+        SmartDashboard.putNumber("Drive/" + MOTOR_NAMES[i] + " TempC", motorInputs[i].temperatureCelsius);
+        SmartDashboard.putNumber("Drive/" + MOTOR_NAMES[i] + " ModelTempC", motorInputs[i].modelTemperatureCelsius);
+        SmartDashboard.putNumber("Drive/" + MOTOR_NAMES[i] + " CurrentLimit", motorInputs[i].currentLimitAmps);
+        SmartDashboard.putNumber("Drive/" + MOTOR_NAMES[i] + " StatorLimit", motorInputs[i].statorLimitAmps);
+      }
+      SmartDashboard.putNumber("Drive/CAN FramesSent", driveIO.getFramesSent());
+      SmartDashboard.putNumber("Drive/CAN FramesSuppressed", driveIO.getFramesSuppressed());
+      if (odometryThread != null) {
+        SmartDashboard.putNumber("Drive/Odometry DroppedSamples", odometryThread.getDroppedSamples());
+      }
+      // Compare with and without optimizeBusUtilization in motor-config.json
+      SmartDashboard.putNumber(
+          "Drive/CAN BusUtilization%", RobotController.getCANStatus().percentBusUtilization * 100.0);
+    }
+    if (inputsAllocation != null) {
+      SmartDashboard.putNumber("Drive/InputsAllocatedBytes", inputsAllocation.getLastBytes());
+      SmartDashboard.putNumber("Drive/InputsAllocatingLoops", inputsAllocation.getAllocatingSections());
+    }
+  }
+
+  private MecanumDrivePoseEstimator createPoseEstimator() {
+    // Seed the inputs so the estimator starts from the real encoder positions
+    driveIO.updateInputs(inputs);
+    return new MecanumDrivePoseEstimator(kinematics, gyro.getRotation(), inputs.wheelPositions, new Pose2d());
+  }
+
+  /** Feeds every sample the odometry thread queued since the last loop into the estimator. */
+  private void drainOdometry() {
+    while (odometryThread.poll(odometrySample)) {
+      // Samples are in DriveIO order {FL, RL, FR, RR}
+      double[] positions = odometrySample.positionsMeters;
+      odometryWheelPositions.frontLeftMeters = positions[0];
+      odometryWheelPositions.rearLeftMeters = positions[1];
+      odometryWheelPositions.frontRightMeters = positions[2];
+      odometryWheelPositions.rearRightMeters = positions[3];
+      poseEstimator.updateWithTime(
+          odometrySample.timestampSeconds,
+          Rotation2d.fromDegrees(odometrySample.yawDegrees),
+          odometryWheelPositions);
     }
   }
 
@@ -174,6 +321,59 @@ public class MecanumDriveSubsystem extends SubsystemBase {
         .withName("Drive");
   }
 
+  /** Slow voltage ramp for kS and kV. Drives straight forward/back; give it room. */
+  public Command sysIdQuasistatic(SysIdRoutine.Direction direction) {
+    return sysIdRoutine.quasistatic(direction).withName("SysIdQuasistatic " + direction);
+  }
+
+  /** Voltage step for kA. Drives straight forward/back; give it room. */
+  public Command sysIdDynamic(SysIdRoutine.Direction direction) {
+    return sysIdRoutine.dynamic(direction).withName("SysIdDynamic " + direction);
+  }
+
+  /** All four SysId tests with a pause between each, to run from one held button. */
+  public Command sysIdDriveMotorCommand() {
+    double pause = Constants.DriveConstants.SYSID_PAUSE_SECONDS;
+    return Commands.sequence(
+            sysIdQuasistatic(SysIdRoutine.Direction.kForward),
+            Commands.waitSeconds(pause),
+            sysIdQuasistatic(SysIdRoutine.Direction.kReverse),
+            Commands.waitSeconds(pause),
+            sysIdDynamic(SysIdRoutine.Direction.kForward),
+            Commands.waitSeconds(pause),
+            sysIdDynamic(SysIdRoutine.Direction.kReverse))
+        .withName("SysIdDrive");
+  }
+
+  private void runSysIdVolts(Voltage voltage) {
+    double volts = voltage.in(Volts);
+    driveIO.setVoltages(volts, volts, volts, volts);
+    setpointStale = true;
+  }
+
+  /** Writes this loop's applied volts, wheel position and speed per wheel to the DataLog. */
+  private void logSysId(SysIdRoutineLog log) {
+    // Same order as DriveIO.getMotorInputs()
+    MotorInputs[] motorInputs = driveIO.getMotorInputs();
+    MecanumDriveWheelPositions positions = inputs.wheelPositions;
+    MecanumDriveWheelSpeeds speeds = inputs.wheelSpeeds;
+    logSysIdMotor(log, "drive-front-left", motorInputs[0].appliedVolts,
+        positions.frontLeftMeters, speeds.frontLeftMetersPerSecond);
+    logSysIdMotor(log, "drive-rear-left", motorInputs[1].appliedVolts,
+        positions.rearLeftMeters, speeds.rearLeftMetersPerSecond);
+    logSysIdMotor(log, "drive-front-right", motorInputs[2].appliedVolts,
+        positions.frontRightMeters, speeds.frontRightMetersPerSecond);
+    logSysIdMotor(log, "drive-rear-right", motorInputs[3].appliedVolts,
+        positions.rearRightMeters, speeds.rearRightMetersPerSecond);
+  }
+
+  private void logSysIdMotor(SysIdRoutineLog log, String name, double volts, double meters, double metersPerSecond) {
+    log.motor(name)
+        .voltage(sysIdVolts.mut_replace(volts, Volts))
+        .linearPosition(sysIdDistance.mut_replace(meters, Meters))
+        .linearVelocity(sysIdVelocity.mut_replace(metersPerSecond, MetersPerSecond));
+  }
+
   private void setupPathPlanner() {
     try {
       RobotConfig config = RobotConfig.fromGUISettings();
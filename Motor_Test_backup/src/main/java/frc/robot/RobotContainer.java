@@ -21,6 +21,7 @@ import frc.robot.motor.MotorHealthTest;
 import frc.robot.motor.MotorKind;
 import frc.robot.motor.MotorTestSubsystem;
 import frc.robot.motor.UniversalMotor;
+import frc.robot.motor.VelocityLatencyTest;
 
 public class RobotContainer {
   private final ShuffleboardTab tab = Shuffleboard.getTab("Motor Test");
@@ -40,6 +41,7 @@ public class RobotContainer {
       tab.add("Gear Ratio", Constants.MotorConstants.DEFAULT_GEAR_RATIO).getEntry();
   private final GenericEntry quadCprEntry = tab.add("Quad CPR", Constants.MotorConstants.DEFAULT_QUAD_CPR).getEntry();
   private final GenericEntry invertedEntry = tab.add("Invert", false).getEntry();
+  private final GenericEntry lowLatencyEncoderEntry = tab.add("Low-Latency Encoder", true).getEntry();
   private final GenericEntry applyConfigEntry =
       tab.add("Apply Config", false).withWidget(BuiltInWidgets.kToggleButton).getEntry();
 
@@ -48,6 +50,7 @@ public class RobotContainer {
   private final MotorTestSubsystem subsystem = new MotorTestSubsystem(defaultConfiguration());
 
   private final MotorHealthTest healthTestCommand = new MotorHealthTest(subsystem);
+  private final VelocityLatencyTest latencyTestCommand = new VelocityLatencyTest(subsystem);
 
   public RobotContainer() {
     configureChoosers();
@@ -74,7 +77,7 @@ public class RobotContainer {
     modeChooser.addOption("Voltage", UniversalMotor.Mode.VOLTAGE);
     modeChooser.addOption("Velocity", UniversalMotor.Mode.VELOCITY);
     modeChooser.addOption("Position", UniversalMotor.Mode.POSITION);
-    modeChooser.addOption("Current (Spark/SRX only)", UniversalMotor.Mode.CURRENT);
+    modeChooser.addOption("Current", UniversalMotor.Mode.CURRENT);
     modeChooser.addOption("Smart Motion", UniversalMotor.Mode.SMART_MOTION);
   }
 
@@ -94,6 +97,8 @@ public class RobotContainer {
     tab.addNumber("Current A", () -> subsystem.getMotor() != null ? subsystem.getMotor().getCurrent() : 0.0);
     tab.addNumber("Velocity RPS", () -> subsystem.getMotor() != null ? subsystem.getMotor().getVelocity() : 0.0);
     tab.addNumber("Position", () -> subsystem.getMotor() != null ? subsystem.getMotor().getPosition() : 0.0);
+    tab.addNumber("Velocity Onset ms", latencyTestCommand::getLastOnsetMs);
+    tab.addNumber("Velocity Rise ms", latencyTestCommand::getLastRiseMs);
   }
 
   private void configureBindings() {
@@ -116,6 +121,7 @@ public class RobotContainer {
         .onTrue(new InstantCommand(this::applyConfiguration, subsystem));
 
     driver.b().whileTrue(healthTestCommand);
+    driver.y().whileTrue(latencyTestCommand);
   }
 
   private MotorConfiguration defaultConfiguration() {
@@ -131,6 +137,7 @@ public class RobotContainer {
     ControllerType controllerType =
         controllerChooser.getSelected() != null ? controllerChooser.getSelected() : ControllerType.SPARK_MAX;
     MotorKind motorKind = motorChooser.getSelected() != null ? motorChooser.getSelected() : MotorKind.CIM;
+    boolean lowLatencyEncoder = lowLatencyEncoderEntry.getBoolean(true);
     MotorConfiguration config =
         MotorConfiguration.builder(controllerType, motorKind)
             .canId((int) canIdEntry.getInteger(Constants.MotorConstants.DEFAULT_CAN_ID))
@@ -139,6 +146,8 @@ public class RobotContainer {
             .quadCpr((int) quadCprEntry.getInteger(Constants.MotorConstants.DEFAULT_QUAD_CPR))
             .inverted(invertedEntry.getBoolean(false))
             .useQuadEncoder(controllerType == ControllerType.TALON_SRX)
+            .encoderMeasurementPeriodMs(motorKind.getSparkMeasurementPeriodMs(lowLatencyEncoder))
+            .encoderAverageDepth(motorKind.getSparkAverageDepth(lowLatencyEncoder))
             .build();
     subsystem.rebuildMotor(config);
     applyConfigEntry.setBoolean(false);
@@ -5,7 +5,9 @@ import com.ctre.phoenix.motorcontrol.NeutralMode;
 import com.ctre.phoenix.motorcontrol.can.WPI_TalonSRX;
 import com.ctre.phoenix6.configs.TalonFXConfiguration;
 import com.ctre.phoenix6.configs.TalonFXSConfiguration;
+import com.ctre.phoenix6.controls.MotionMagicVoltage;
 import com.ctre.phoenix6.controls.PositionVoltage;
+import com.ctre.phoenix6.controls.TorqueCurrentFOC;
 import com.ctre.phoenix6.controls.VelocityVoltage;
 import com.ctre.phoenix6.controls.VoltageOut;
 import com.ctre.phoenix6.hardware.TalonFX;
@@ -46,6 +48,8 @@ public class CanMotorWrapper implements UniversalMotor {
   private final VoltageOut talonVoltage = new VoltageOut(0.0);
   private final VelocityVoltage talonVelocity = new VelocityVoltage(0.0);
   private final PositionVoltage talonPosition = new PositionVoltage(0.0);
+  private final MotionMagicVoltage talonMotionMagic = new MotionMagicVoltage(0.0);
+  private final TorqueCurrentFOC talonTorqueCurrent = new TorqueCurrentFOC(0.0);
 
   private Mode controlMode = Mode.DUTY_CYCLE;
   private double healthScore = 100.0;
@@ -57,6 +61,12 @@ public class CanMotorWrapper implements UniversalMotor {
     this.gearRatio = config.gearRatio;
     this.useSensor = config.useQuadEncoder; // Using useQuadEncoder as general 'use sensor' flag?
 
+    // FOC gives Krakens roughly 15% more peak power; ignored by the non-Talon paths
+    talonVoltage.withEnableFOC(config.enableFoc);
+    talonVelocity.withEnableFOC(config.enableFoc);
+    talonPosition.withEnableFOC(config.enableFoc);
+    talonMotionMagic.withEnableFOC(config.enableFoc);
+
     switch (controllerType) {
       case SPARK_MAX:
         spark = new SparkMax(config.canId, sparkMotorType());
@@ -77,6 +87,8 @@ public class CanMotorWrapper implements UniversalMotor {
       case TALON_SRX:
         talonSrx = new WPI_TalonSRX(config.canId);
         talonSrx.setInverted(config.inverted);
+        talonSrx.configMotionCruiseVelocity(rpsToTalonSrxUnits(config.motionCruiseVelocityRps));
+        talonSrx.configMotionAcceleration(rpsToTalonSrxUnits(config.motionAccelerationRpsPerSec));
         talonSrx.setNeutralMode(NeutralMode.Brake);
         break;
       default:
@@ -98,6 +110,19 @@ public class CanMotorWrapper implements UniversalMotor {
     baseConfig.idleMode(IdleMode.kBrake);
     baseConfig.encoder.positionConversionFactor(1.0 / gearRatio);
     baseConfig.encoder.velocityConversionFactor(1.0 / gearRatio / 60.0);
+    // A brushless Spark MAX measures velocity from the NEO's hall sensor; everything else is quadrature
+    if (controllerType == ControllerType.SPARK_MAX && motorKind.isBrushless()) {
+      baseConfig.encoder.uvwMeasurementPeriod(config.encoderMeasurementPeriodMs);
+      baseConfig.encoder.uvwAverageDepth(config.encoderAverageDepth);
+    } else {
+      baseConfig.encoder.quadratureMeasurementPeriod(config.encoderMeasurementPeriodMs);
+      baseConfig.encoder.quadratureAverageDepth(config.encoderAverageDepth);
+    }
+
+    // MAXMotion profile limits for SMART_MOTION, in the mechanism units set above. No jerk limit.
+    baseConfig.closedLoop.maxMotion
+        .cruiseVelocity(config.motionCruiseVelocityRps)
+        .maxAcceleration(config.motionAccelerationRpsPerSec);
     spark.configure(baseConfig, ResetMode.kResetSafeParameters, PersistMode.kNoPersistParameters);        
   }
 
@@ -107,6 +132,9 @@ public class CanMotorWrapper implements UniversalMotor {
         config.inverted ? InvertedValue.Clockwise_Positive : InvertedValue.CounterClockwise_Positive;     
     fxConfig.MotorOutput.NeutralMode = NeutralModeValue.Brake;
     fxConfig.Feedback.SensorToMechanismRatio = gearRatio;
+    fxConfig.MotionMagic.MotionMagicCruiseVelocity = config.motionCruiseVelocityRps;
+    fxConfig.MotionMagic.MotionMagicAcceleration = config.motionAccelerationRpsPerSec;
+    fxConfig.MotionMagic.MotionMagicJerk = config.motionJerkRpsPerSec2;
     talonFx.getConfigurator().apply(fxConfig);
   }
 
@@ -116,6 +144,9 @@ public class CanMotorWrapper implements UniversalMotor {
         config.inverted ? InvertedValue.Clockwise_Positive : InvertedValue.CounterClockwise_Positive;     
     fxsConfig.MotorOutput.NeutralMode = NeutralModeValue.Brake;
     fxsConfig.ExternalFeedback.SensorToMechanismRatio = gearRatio;
+    fxsConfig.MotionMagic.MotionMagicCruiseVelocity = config.motionCruiseVelocityRps;
+    fxsConfig.MotionMagic.MotionMagicAcceleration = config.motionAccelerationRpsPerSec;
+    fxsConfig.MotionMagic.MotionMagicJerk = config.motionJerkRpsPerSec2;
     talonFxs.getConfigurator().apply(fxsConfig);
   }
 
@@ -141,6 +172,12 @@ public class CanMotorWrapper implements UniversalMotor {
       case POSITION:
         setPositionRotations(value);
         break;
+      case SMART_MOTION:
+        setProfiledPositionRotations(value);
+        break;
+      case CURRENT:
+        setCurrentAmps(value);
+        break;
       case DUTY_CYCLE:
       default:
         setVoltage(value * 12.0);
@@ -211,6 +248,56 @@ public class CanMotorWrapper implements UniversalMotor {
     }
   }
 
+  /**
+   * Commands motor current. Talon FX/FXS use TorqueCurrentFOC, which regulates torque-producing
+   * current directly and requires Phoenix Pro; Sparks and the SRX run their own current loops.
+   */
+  @Override
+  public void setCurrentAmps(double amps) {
+    switch (controllerType) {
+      case SPARK_MAX:
+      case SPARK_FLEX:
+        sparkClosedLoop.setSetpoint(amps, SparkBase.ControlType.kCurrent, ClosedLoopSlot.kSlot0);
+        break;
+      case TALON_FX:
+        talonFx.setControl(talonTorqueCurrent.withOutput(amps));
+        break;
+      case TALON_FXS:
+        talonFxs.setControl(talonTorqueCurrent.withOutput(amps));
+        break;
+      case TALON_SRX:
+        talonSrx.set(ControlMode.Current, amps);
+        break;
+      default:
+        break;
+    }
+  }
+
+  /**
+   * Moves to a position along a trapezoidal (Talon: optionally S-curve) profile generated on the
+   * controller, using the cruise velocity, acceleration and jerk from the configuration.
+   */
+  @Override
+  public void setProfiledPositionRotations(double rotations) {
+    switch (controllerType) {
+      case SPARK_MAX:
+      case SPARK_FLEX:
+        sparkClosedLoop.setSetpoint(rotations, SparkBase.ControlType.kMAXMotionPositionControl, ClosedLoopSlot.kSlot0);
+        break;
+      case TALON_FX:
+        talonFx.setControl(talonMotionMagic.withPosition(rotations));
+        break;
+      case TALON_FXS:
+        talonFxs.setControl(talonMotionMagic.withPosition(rotations));
+        break;
+      case TALON_SRX:
+        talonSrx.set(ControlMode.MotionMagic, rotationsToTalonSrxUnits(rotations));
+        break;
+      default:
+        break;
+    }
+  }
+
   @Override
   public double getVelocityRps() {
     switch (controllerType) {
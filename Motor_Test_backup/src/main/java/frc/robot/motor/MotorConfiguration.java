@@ -10,6 +10,14 @@ public final class MotorConfiguration {
   public final boolean inverted;
   public final boolean useQuadEncoder;
   public final int quadCpr;
+  // SMART_MOTION profile limits, in mechanism rotations
+  public final double motionCruiseVelocityRps;
+  public final double motionAccelerationRpsPerSec;
+  public final double motionJerkRpsPerSec2; // 0 = no jerk limit (Talon only)
+  public final boolean enableFoc; // Talon FX/FXS field-oriented commutation; needs Phoenix Pro
+  // Spark velocity filter; defaults to the low-latency preset for the motor kind
+  public final int encoderMeasurementPeriodMs;
+  public final int encoderAverageDepth;
 
   private MotorConfiguration(Builder builder) {
     controllerType = builder.controllerType;
@@ -21,6 +29,16 @@ public final class MotorConfiguration {
     inverted = builder.inverted;
     useQuadEncoder = builder.useQuadEncoder;
     quadCpr = builder.quadCpr;
+    motionCruiseVelocityRps = builder.motionCruiseVelocityRps;
+    motionAccelerationRpsPerSec = builder.motionAccelerationRpsPerSec;
+    motionJerkRpsPerSec2 = builder.motionJerkRpsPerSec2;
+    enableFoc = builder.enableFoc;
+    encoderMeasurementPeriodMs = builder.encoderMeasurementPeriodMs > 0
+        ? builder.encoderMeasurementPeriodMs
+        : builder.motorKind.getSparkMeasurementPeriodMs(true);
+    encoderAverageDepth = builder.encoderAverageDepth > 0
+        ? builder.encoderAverageDepth
+        : builder.motorKind.getSparkAverageDepth(true);
   }
 
   public static Builder builder(ControllerType controllerType, MotorKind motorKind) {
@@ -37,6 +55,12 @@ public final class MotorConfiguration {
     private boolean inverted = false;
     private boolean useQuadEncoder = false;
     private int quadCpr = 4096;
+    private double motionCruiseVelocityRps = 1.0;
+    private double motionAccelerationRpsPerSec = 2.0;
+    private double motionJerkRpsPerSec2 = 0.0;
+    private boolean enableFoc = false;
+    private int encoderMeasurementPeriodMs = 0;
+    private int encoderAverageDepth = 0;
 
     private Builder(ControllerType controllerType, MotorKind motorKind) {
       this.controllerType = controllerType;
@@ -78,6 +102,36 @@ public final class MotorConfiguration {
       return this;
     }
 
+    public Builder motionCruiseVelocity(double rps) {
+      this.motionCruiseVelocityRps = rps;
+      return this;
+    }
+
+    public Builder motionAcceleration(double rpsPerSec) {
+      this.motionAccelerationRpsPerSec = rpsPerSec;
+      return this;
+    }
+
+    public Builder motionJerk(double rpsPerSec2) {
+      this.motionJerkRpsPerSec2 = rpsPerSec2;
+      return this;
+    }
+
+    public Builder enableFoc(boolean enableFoc) {
+      this.enableFoc = enableFoc;
+      return this;
+    }
+
+    public Builder encoderMeasurementPeriodMs(int periodMs) {
+      this.encoderMeasurementPeriodMs = periodMs;
+      return this;
+    }
+
+    public Builder encoderAverageDepth(int depth) {
+      this.encoderAverageDepth = depth;
+      return this;
+    }
+
     public MotorConfiguration build() {
       return new MotorConfiguration(this);
     }
@@ -16,6 +16,8 @@ public interface UniversalMotor {
   void setVoltage(double volts);
   void setVelocityRps(double rps);
   void setPositionRotations(double rotations);
+  default void setCurrentAmps(double amps) { stop(); } // CURRENT mode; controllers without torque control stop instead
+  default void setProfiledPositionRotations(double rotations) { setPositionRotations(rotations); } // SMART_MOTION; profiled on the controller where supported
   double getVelocityRps();
   double getPositionRotations();
   default double getVelocity() { return getVelocityRps(); }
@@ -0,0 +1,157 @@
+package frc.robot.motor;
+
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj2.command.Command;
+
+/**
+ * Measures how far the reported velocity lags a voltage step. Each trial rests the motor, steps
+ * it to {@link #STEP_VOLTS}, and records when the reading first shows movement (5% of the final
+ * speed) and when it reaches 63%. Run it once with the low-latency encoder preset and once
+ * without; the difference between the two is the filter lag that was removed.
+ *
+ * <p>Samples come from the 20 ms loop, so results are only good to about one loop.
+ */
+public class VelocityLatencyTest extends Command {
+  private static final double STEP_VOLTS = 6.0;
+  private static final double REST_SECONDS = 1.0;
+  private static final double STEP_SECONDS = 1.5;
+  private static final int TRIALS = 3;
+  private static final int MAX_SAMPLES = 128;
+  private static final int FINAL_SPEED_SAMPLES = 5;
+  private static final double ONSET_FRACTION = 0.05;
+  private static final double RISE_FRACTION = 0.63;
+
+  private enum Phase {
+    REST,
+    STEP,
+    DONE
+  }
+
+  private final MotorTestSubsystem subsystem;
+  private UniversalMotor motor;
+  private final Timer timer = new Timer();
+  private final double[] sampleTimes = new double[MAX_SAMPLES];
+  private final double[] sampleVelocities = new double[MAX_SAMPLES];
+  private int sampleCount = 0;
+
+  private Phase phase = Phase.DONE;
+  private int trial = 0;
+  private double onsetSumMs = 0.0;
+  private double riseSumMs = 0.0;
+  private double lastOnsetMs = 0.0;
+  private double lastRiseMs = 0.0;
+
+  public VelocityLatencyTest(MotorTestSubsystem subsystem) {
+    this.subsystem = subsystem;
+    addRequirements(subsystem);
+  }
+
+  @Override
+  public void initialize() {
+    motor = subsystem.getMotor();
+    trial = 0;
+    onsetSumMs = 0.0;
+    riseSumMs = 0.0;
+    startRest();
+    phase = motor != null && !motor.isServo() ? Phase.REST : Phase.DONE;
+  }
+
+  @Override
+  public void execute() {
+    if (phase == Phase.DONE) {
+      return;
+    }
+    if (!subsystem.isEnabled()) {
+      // Restart the current trial once output is enabled again
+      startRest();
+      return;
+    }
+
+    switch (phase) {
+      case REST:
+        motor.setVoltage(0.0);
+        if (timer.hasElapsed(REST_SECONDS)) {
+          sampleCount = 0;
+          timer.reset();
+          phase = Phase.STEP;
+        }
+        break;
+      case STEP:
+        motor.setVoltage(STEP_VOLTS);
+        if (sampleCount < MAX_SAMPLES) {
+          sampleTimes[sampleCount] = timer.get();
+          sampleVelocities[sampleCount] = Math.abs(motor.getVelocityRps());
+          sampleCount++;
+        }
+        if (timer.hasElapsed(STEP_SECONDS)) {
+          finishTrial();
+        }
+        break;
+      case DONE:
+      default:
+        break;
+    }
+  }
+
+  @Override
+  public boolean isFinished() {
+    return phase == Phase.DONE;
+  }
+
+  @Override
+  public void end(boolean interrupted) {
+    if (motor != null) {
+      motor.stop();
+    }
+  }
+
+  /** Mean time from the step to the first reading above 5% of final speed, from the last run. */
+  public double getLastOnsetMs() {
+    return lastOnsetMs;
+  }
+
+  /** Mean time from the step to 63% of final speed, from the last run. */
+  public double getLastRiseMs() {
+    return lastRiseMs;
+  }
+
+  private void startRest() {
+    if (motor != null) {
+      motor.stop();
+    }
+    timer.reset();
+    timer.start();
+    phase = Phase.REST;
+  }
+
+  private void finishTrial() {
+    double finalSpeed = 0.0;
+    int from = Math.max(0, sampleCount - FINAL_SPEED_SAMPLES);
+    for (int i = from; i < sampleCount; i++) {
+      finalSpeed += sampleVelocities[i];
+    }
+    finalSpeed /= Math.max(1, sampleCount - from);
+
+    onsetSumMs += firstCrossingSeconds(finalSpeed * ONSET_FRACTION) * 1000.0;
+    riseSumMs += firstCrossingSeconds(finalSpeed * RISE_FRACTION) * 1000.0;
+    trial++;
+    if (trial < TRIALS) {
+      startRest();
+      return;
+    }
+
+    lastOnsetMs = onsetSumMs / TRIALS;
+    lastRiseMs = riseSumMs / TRIALS;
+    motor.stop();
+    phase = Phase.DONE;
+  }
+
+  private double firstCrossingSeconds(double threshold) {
+    for (int i = 0; i < sampleCount; i++) {
+      if (sampleVelocities[i] >= threshold) {
+        return sampleTimes[i];
+      }
+    }
+    return STEP_SECONDS;
+  }
+}
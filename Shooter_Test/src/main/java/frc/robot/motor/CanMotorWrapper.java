@@ -1,12 +1,18 @@
 package frc.robot.motor;
 
+import com.ctre.phoenix.ErrorCode;
 import com.ctre.phoenix.motorcontrol.ControlMode;
+import com.ctre.phoenix.motorcontrol.DemandType;
 import com.ctre.phoenix.motorcontrol.NeutralMode;
 import com.ctre.phoenix.motorcontrol.can.WPI_TalonSRX;
+import com.ctre.phoenix6.BaseStatusSignal;
+import com.ctre.phoenix6.configs.MotorOutputConfigs;
 import com.ctre.phoenix6.configs.Slot0Configs;
 import com.ctre.phoenix6.configs.TalonFXConfiguration;
 import com.ctre.phoenix6.configs.TalonFXSConfiguration;
+import com.ctre.phoenix6.controls.MotionMagicVoltage;
 import com.ctre.phoenix6.controls.PositionVoltage;
+import com.ctre.phoenix6.controls.TorqueCurrentFOC;
 import com.ctre.phoenix6.controls.VelocityVoltage;
 import com.ctre.phoenix6.controls.VoltageOut;
 import com.ctre.phoenix6.hardware.TalonFX;
@@ -25,10 +31,17 @@ import com.revrobotics.spark.SparkFlex;
 import com.revrobotics.spark.SparkMax;
 import com.revrobotics.spark.config.SparkFlexConfig;
 import com.revrobotics.spark.config.SparkMaxConfig;
+import edu.wpi.first.wpilibj.DriverStation;
 import frc.robot.motor.UniversalMotor.Mode;
 
 public class CanMotorWrapper implements UniversalMotor {
   private static final int TALON_SRX_CPR = 4096;
+  // A neutral-mode change slower than this is reported; the loop budget is 20 ms
+  private static final double NEUTRAL_MODE_WARN_MS = 2.0;
+  // Gains are tuned in Talon FX volts; the Spark closed loop outputs duty cycle of this
+  private static final double NOMINAL_VOLTS = 12.0;
+  // Boot config may wait for the SRX's acknowledgement, so a rejected gain is reported
+  private static final int SRX_BOOT_CONFIG_TIMEOUT_MS = 100;
 
   private final MotorConfiguration config;
   private final ControllerType controllerType;
@@ -39,6 +52,10 @@ public class CanMotorWrapper implements UniversalMotor {
   private SparkBase spark;
   private SparkClosedLoopController sparkClosedLoop;
   private RelativeEncoder sparkEncoder;
+  // Reused for neutral-mode changes; holds nothing but the idle mode
+  private SparkBaseConfig sparkIdleConfig;
+  // Same for PID hot-reload; holds nothing but slot 0 gains
+  private SparkBaseConfig sparkGainConfig;
 
   private TalonFX talonFx;
   private TalonFXS talonFxs;
@@ -47,6 +64,31 @@ public class CanMotorWrapper implements UniversalMotor {
   private final VoltageOut talonVoltage = new VoltageOut(0.0);
   private final VelocityVoltage talonVelocity = new VelocityVoltage(0.0);
   private final PositionVoltage talonPosition = new PositionVoltage(0.0);
+  private final MotionMagicVoltage talonMotionMagic = new MotionMagicVoltage(0.0);
+  private final TorqueCurrentFOC talonTorqueCurrent = new TorqueCurrentFOC(0.0);
+  // Reused for neutral-mode changes so they don't touch any other config group
+  private final MotorOutputConfigs talonOutputConfig = new MotorOutputConfigs();
+  // Same for PID hot-reload
+  private final Slot0Configs talonSlot0 = new Slot0Configs();
+
+  // Talon FX/FXS status signals; refreshed in bulk once registered with a SignalRefreshGroup
+  private BaseStatusSignal talonPositionSignal;
+  private BaseStatusSignal talonVelocitySignal;
+  private BaseStatusSignal talonCurrentSignal;
+  private BaseStatusSignal talonTempSignal;
+  private boolean signalsRegistered = false;
+
+  // Gains last sent to slot 0, so hot-reload only pushes real changes
+  private double appliedKp;
+  private double appliedKi;
+  private double appliedKd;
+  private double appliedKv;
+  private double appliedKs;
+  // Talon SRX stand-in for kS, as a fraction of full output
+  private double srxArbitraryFeedForward = 0.0;
+
+  // Every controller is configured to brake at construction
+  private boolean brakeEnabled = true;
 
   private Mode controlMode = Mode.DUTY_CYCLE;
   private double healthScore = 100.0;
@@ -58,6 +100,12 @@ public class CanMotorWrapper implements UniversalMotor {
     this.gearRatio = config.gearRatio;
     this.useSensor = config.useQuadEncoder; // Using useQuadEncoder as general 'use sensor' flag?
 
+    // FOC gives Krakens roughly 15% more peak power; ignored by the non-Talon paths
+    talonVoltage.withEnableFOC(config.enableFoc);
+    talonVelocity.withEnableFOC(config.enableFoc);
+    talonPosition.withEnableFOC(config.enableFoc);
+    talonMotionMagic.withEnableFOC(config.enableFoc);
+
     switch (controllerType) {
       case SPARK_MAX:
         spark = new SparkMax(config.canId, sparkMotorType());
@@ -70,19 +118,40 @@ public class CanMotorWrapper implements UniversalMotor {
       case TALON_FX:
         talonFx = new TalonFX(config.canId);
         configureTalonFx(config);
+        talonPositionSignal = talonFx.getPosition();
+        talonVelocitySignal = talonFx.getVelocity();
+        talonCurrentSignal = talonFx.getTorqueCurrent();
+        talonTempSignal = talonFx.getDeviceTemp();
         break;
       case TALON_FXS:
         talonFxs = new TalonFXS(config.canId);
         configureTalonFxs(config);
+        talonPositionSignal = talonFxs.getPosition();
+        talonVelocitySignal = talonFxs.getVelocity();
+        talonCurrentSignal = talonFxs.getTorqueCurrent();
+        talonTempSignal = talonFxs.getDeviceTemp();
         break;
       case TALON_SRX:
         talonSrx = new WPI_TalonSRX(config.canId);
         talonSrx.setInverted(config.inverted);
+        talonSrx.configMotionCruiseVelocity(rpsToTalonSrxUnits(config.motionCruiseVelocityRps));
+        talonSrx.configMotionAcceleration(rpsToTalonSrxUnits(config.motionAccelerationRpsPerSec));
         talonSrx.setNeutralMode(NeutralMode.Brake);
+        if (!applySrxGains(true, true, true, true, config.kP, config.kI, config.kD, config.kV,
+            SRX_BOOT_CONFIG_TIMEOUT_MS)) {
+          DriverStation.reportError("Talon SRX " + config.canId + " did not accept its slot 0 gains", false);
+        }
+        srxArbitraryFeedForward = config.kS / 12.0;
         break;
       default:
         throw new IllegalArgumentException("Unsupported CAN motor type: " + controllerType);
     }
+    // Every type above pushed the configured gains during setup
+    appliedKp = config.kP;
+    appliedKi = config.kI;
+    appliedKd = config.kD;
+    appliedKv = config.kV;
+    appliedKs = config.kS;
   }
 
   private SparkBase.MotorType sparkMotorType() {
@@ -94,20 +163,49 @@ public class CanMotorWrapper implements UniversalMotor {
   private void configureSpark(SparkBaseConfig baseConfig, MotorConfiguration config) {
     sparkClosedLoop = spark.getClosedLoopController();
     sparkEncoder = spark.getEncoder();
+    sparkIdleConfig = controllerType == ControllerType.SPARK_FLEX
+        ? new SparkFlexConfig()
+        : new SparkMaxConfig();
+    sparkGainConfig = controllerType == ControllerType.SPARK_FLEX
+        ? new SparkFlexConfig()
+        : new SparkMaxConfig();
 
     baseConfig.inverted(config.inverted);
     baseConfig.idleMode(IdleMode.kBrake);
     baseConfig.encoder.positionConversionFactor(1.0 / gearRatio);
     baseConfig.encoder.velocityConversionFactor(1.0 / gearRatio / 60.0);
+    // A brushless Spark MAX measures velocity from the NEO's hall sensor; everything else is quadrature
+    if (controllerType == ControllerType.SPARK_MAX && motorKind.isBrushless()) {
+      baseConfig.encoder.uvwMeasurementPeriod(config.encoderMeasurementPeriodMs);
+      baseConfig.encoder.uvwAverageDepth(config.encoderAverageDepth);
+    } else {
+      baseConfig.encoder.quadratureMeasurementPeriod(config.encoderMeasurementPeriodMs);
+      baseConfig.encoder.quadratureAverageDepth(config.encoderAverageDepth);
+    }
+
+    // MAXMotion profile limits for SMART_MOTION, in the mechanism units set above. No jerk limit.
+    baseConfig.closedLoop.maxMotion
+        .cruiseVelocity(config.motionCruiseVelocityRps)
+        .maxAcceleration(config.motionAccelerationRpsPerSec);
+
+    setSparkPid(baseConfig, true, true, true, config.kP, config.kI, config.kD);
+    // REVLib's kV and kS are already in volts, like the Talon slot
+    baseConfig.closedLoop.feedForward
+        .kV(config.kV, ClosedLoopSlot.kSlot0)
+        .kS(config.kS, ClosedLoopSlot.kSlot0);
     spark.configure(baseConfig, ResetMode.kResetSafeParameters, PersistMode.kNoPersistParameters);        
   }
 
   private void configureTalonFx(MotorConfiguration config) {
     TalonFXConfiguration fxConfig = new TalonFXConfiguration();
-    fxConfig.MotorOutput.Inverted =
+    talonOutputConfig.Inverted =
         config.inverted ? InvertedValue.Clockwise_Positive : InvertedValue.CounterClockwise_Positive;
-    fxConfig.MotorOutput.NeutralMode = NeutralModeValue.Brake;
+    talonOutputConfig.NeutralMode = NeutralModeValue.Brake;
+    fxConfig.MotorOutput = talonOutputConfig;
     fxConfig.Feedback.SensorToMechanismRatio = gearRatio;
+    fxConfig.MotionMagic.MotionMagicCruiseVelocity = config.motionCruiseVelocityRps;
+    fxConfig.MotionMagic.MotionMagicAcceleration = config.motionAccelerationRpsPerSec;
+    fxConfig.MotionMagic.MotionMagicJerk = config.motionJerkRpsPerSec2;
 
     // Apply PID configuration to Slot0
     fxConfig.Slot0.kP = config.kP;
@@ -121,10 +219,14 @@ public class CanMotorWrapper implements UniversalMotor {
 
   private void configureTalonFxs(MotorConfiguration config) {
     TalonFXSConfiguration fxsConfig = new TalonFXSConfiguration();
-    fxsConfig.MotorOutput.Inverted =
+    talonOutputConfig.Inverted =
         config.inverted ? InvertedValue.Clockwise_Positive : InvertedValue.CounterClockwise_Positive;
-    fxsConfig.MotorOutput.NeutralMode = NeutralModeValue.Brake;
+    talonOutputConfig.NeutralMode = NeutralModeValue.Brake;
+    fxsConfig.MotorOutput = talonOutputConfig;
     fxsConfig.ExternalFeedback.SensorToMechanismRatio = gearRatio;
+    fxsConfig.MotionMagic.MotionMagicCruiseVelocity = config.motionCruiseVelocityRps;
+    fxsConfig.MotionMagic.MotionMagicAcceleration = config.motionAccelerationRpsPerSec;
+    fxsConfig.MotionMagic.MotionMagicJerk = config.motionJerkRpsPerSec2;
 
     // Apply PID configuration to Slot0
     fxsConfig.Slot0.kP = config.kP;
@@ -158,6 +260,12 @@ public class CanMotorWrapper implements UniversalMotor {
       case POSITION:
         setPositionRotations(value);
         break;
+      case SMART_MOTION:
+        setProfiledPositionRotations(value);
+        break;
+      case CURRENT:
+        setCurrentAmps(value);
+        break;
       case DUTY_CYCLE:
       default:
         setVoltage(value * 12.0);
@@ -200,7 +308,8 @@ public class CanMotorWrapper implements UniversalMotor {
         talonFxs.setControl(talonVelocity.withVelocity(rps));
         break;
       case TALON_SRX:
-        talonSrx.set(ControlMode.Velocity, rpsToTalonSrxUnits(rps));
+        talonSrx.set(ControlMode.Velocity, rpsToTalonSrxUnits(rps),
+            DemandType.ArbitraryFeedForward, Math.signum(rps) * srxArbitraryFeedForward);
         break;
       default:
         break;
@@ -228,6 +337,56 @@ public class CanMotorWrapper implements UniversalMotor {
     }
   }
 
+  /**
+   * Commands motor current. Talon FX/FXS use TorqueCurrentFOC, which regulates torque-producing
+   * current directly and requires Phoenix Pro; Sparks and the SRX run their own current loops.
+   */
+  @Override
+  public void setCurrentAmps(double amps) {
+    switch (controllerType) {
+      case SPARK_MAX:
+      case SPARK_FLEX:
+        sparkClosedLoop.setSetpoint(amps, SparkBase.ControlType.kCurrent, ClosedLoopSlot.kSlot0);
+        break;
+      case TALON_FX:
+        talonFx.setControl(talonTorqueCurrent.withOutput(amps));
+        break;
+      case TALON_FXS:
+        talonFxs.setControl(talonTorqueCurrent.withOutput(amps));
+        break;
+      case TALON_SRX:
+        talonSrx.set(ControlMode.Current, amps);
+        break;
+      default:
+        break;
+    }
+  }
+
+  /**
+   * Moves to a position along a trapezoidal (Talon: optionally S-curve) profile generated on the
+   * controller, using the cruise velocity, acceleration and jerk from the configuration.
+   */
+  @Override
+  public void setProfiledPositionRotations(double rotations) {
+    switch (controllerType) {
+      case SPARK_MAX:
+      case SPARK_FLEX:
+        sparkClosedLoop.setSetpoint(rotations, SparkBase.ControlType.kMAXMotionPositionControl, ClosedLoopSlot.kSlot0);
+        break;
+      case TALON_FX:
+        talonFx.setControl(talonMotionMagic.withPosition(rotations));
+        break;
+      case TALON_FXS:
+        talonFxs.setControl(talonMotionMagic.withPosition(rotations));
+        break;
+      case TALON_SRX:
+        talonSrx.set(ControlMode.MotionMagic, rotationsToTalonSrxUnits(rotations));
+        break;
+      default:
+        break;
+    }
+  }
+
   @Override
   public double getVelocityRps() {
     switch (controllerType) {
@@ -235,9 +394,8 @@ public class CanMotorWrapper implements UniversalMotor {
       case SPARK_FLEX:
         return sparkEncoder != null ? sparkEncoder.getVelocity() : 0.0;
       case TALON_FX:
-        return talonFx.getVelocity().getValueAsDouble();
       case TALON_FXS:
-        return talonFxs.getVelocity().getValueAsDouble();
+        return talonSignalValue(talonVelocitySignal);
       case TALON_SRX:
         return talonSrx.getSelectedSensorVelocity() / TALON_SRX_CPR * 10.0 / gearRatio;
       default:
@@ -252,9 +410,8 @@ public class CanMotorWrapper implements UniversalMotor {
       case SPARK_FLEX:
         return sparkEncoder != null ? sparkEncoder.getPosition() : 0.0;
       case TALON_FX:
-        return talonFx.getPosition().getValueAsDouble();
       case TALON_FXS:
-        return talonFxs.getPosition().getValueAsDouble();
+        return talonSignalValue(talonPositionSignal);
       case TALON_SRX:
         return talonSrx.getSelectedSensorPosition() / TALON_SRX_CPR / gearRatio;
       default:
@@ -262,22 +419,35 @@ public class CanMotorWrapper implements UniversalMotor {
     }
   }
 
+  @Override
+  public void registerSignals(SignalRefreshGroup group) {
+    if (talonPositionSignal == null) {
+      return;
+    }
+    group.register(talonPositionSignal, talonVelocitySignal, talonCurrentSignal, talonTempSignal);
+    signalsRegistered = true;
+  }
+
   @Override
   public void setBrake(boolean brake) {
+    // Callers re-assert the mode every loop; only real changes reach the device
+    if (brake == brakeEnabled) {
+      return;
+    }
+    long start = System.nanoTime();
     switch (controllerType) {
       case SPARK_MAX:
       case SPARK_FLEX:
         applySparkIdleMode(brake);
         break;
       case TALON_FX:
-        TalonFXConfiguration fxConfig = new TalonFXConfiguration();
-        fxConfig.MotorOutput.NeutralMode = brake ? NeutralModeValue.Brake : NeutralModeValue.Coast;       
-        talonFx.getConfigurator().apply(fxConfig);
+        // Only the MotorOutput group, and a 0 timeout so the apply is queued instead of awaited
+        talonOutputConfig.NeutralMode = brake ? NeutralModeValue.Brake : NeutralModeValue.Coast;
+        talonFx.getConfigurator().apply(talonOutputConfig, 0.0);
         break;
       case TALON_FXS:
-        TalonFXSConfiguration fxsConfig = new TalonFXSConfiguration();
-        fxsConfig.MotorOutput.NeutralMode = brake ? NeutralModeValue.Brake : NeutralModeValue.Coast;      
-        talonFxs.getConfigurator().apply(fxsConfig);
+        talonOutputConfig.NeutralMode = brake ? NeutralModeValue.Brake : NeutralModeValue.Coast;
+        talonFxs.getConfigurator().apply(talonOutputConfig, 0.0);
         break;
       case TALON_SRX:
         talonSrx.setNeutralMode(brake ? NeutralMode.Brake : NeutralMode.Coast);
@@ -285,6 +455,12 @@ public class CanMotorWrapper implements UniversalMotor {
       default:
         break;
     }
+    brakeEnabled = brake;
+    double elapsedMs = (System.nanoTime() - start) / 1e6;
+    if (elapsedMs > NEUTRAL_MODE_WARN_MS) {
+      DriverStation.reportWarning(
+          String.format("Neutral mode change on CAN %d took %.1f ms", config.canId, elapsedMs), false);
+    }
   }
 
   @Override
@@ -315,9 +491,8 @@ public class CanMotorWrapper implements UniversalMotor {
       case SPARK_FLEX:
         return spark.getOutputCurrent();
       case TALON_FX:
-        return talonFx.getTorqueCurrent().getValueAsDouble();
       case TALON_FXS:
-        return talonFxs.getTorqueCurrent().getValueAsDouble();
+        return talonSignalValue(talonCurrentSignal);
       case TALON_SRX:
         return talonSrx.getStatorCurrent();
       default:
@@ -332,9 +507,8 @@ public class CanMotorWrapper implements UniversalMotor {
       case SPARK_FLEX:
         return spark.getMotorTemperature();
       case TALON_FX:
-        return talonFx.getDeviceTemp().getValueAsDouble();
       case TALON_FXS:
-        return talonFxs.getDeviceTemp().getValueAsDouble();
+        return talonSignalValue(talonTempSignal);
       case TALON_SRX:
         return talonSrx.getTemperature();
       default:
@@ -362,32 +536,110 @@ public class CanMotorWrapper implements UniversalMotor {
     return false;
   }
 
+  /**
+   * Hot-reloads the slot 0 gains, in Talon FX units (volts per rps of error, kV volts per rps,
+   * kS volts). Nothing is sent unless a gain changed, and every push is queued without waiting
+   * for the controller, so this is safe to call from the loop. The config objects are reused.
+   */
   @Override
   public void updatePidConfig(double kP, double kI, double kD, double kV, double kS) {
-    // Hot-reload PID configuration for supported motor controllers
+    boolean pChanged = kP != appliedKp;
+    boolean iChanged = kI != appliedKi;
+    boolean dChanged = kD != appliedKd;
+    boolean vChanged = kV != appliedKv;
+    boolean sChanged = kS != appliedKs;
+    if (!(pChanged || iChanged || dChanged || vChanged || sChanged)) {
+      return;
+    }
     switch (controllerType) {
+      case SPARK_MAX:
+      case SPARK_FLEX:
+        // The reused config keeps every gain set so far, so earlier changes are resent with it
+        setSparkPid(sparkGainConfig, pChanged, iChanged, dChanged, kP, kI, kD);
+        if (vChanged) {
+          sparkGainConfig.closedLoop.feedForward.kV(kV, ClosedLoopSlot.kSlot0);
+        }
+        if (sChanged) {
+          sparkGainConfig.closedLoop.feedForward.kS(kS, ClosedLoopSlot.kSlot0);
+        }
+        spark.configureAsync(sparkGainConfig, ResetMode.kNoResetSafeParameters, PersistMode.kNoPersistParameters);
+        break;
       case TALON_FX:
-        Slot0Configs slot0 = new Slot0Configs();
-        slot0.kP = kP;
-        slot0.kI = kI;
-        slot0.kD = kD;
-        slot0.kV = kV;
-        slot0.kS = kS;
-        talonFx.getConfigurator().apply(slot0);
+        // Slot 0 is one config group, so it goes out whole; 0 timeout queues it
+        talonFx.getConfigurator().apply(setTalonSlot0(kP, kI, kD, kV, kS), 0.0);
         break;
       case TALON_FXS:
-        Slot0Configs slot0Fxs = new Slot0Configs();
-        slot0Fxs.kP = kP;
-        slot0Fxs.kI = kI;
-        slot0Fxs.kD = kD;
-        slot0Fxs.kV = kV;
-        slot0Fxs.kS = kS;
-        talonFxs.getConfigurator().apply(slot0Fxs);
+        talonFxs.getConfigurator().apply(setTalonSlot0(kP, kI, kD, kV, kS), 0.0);
+        break;
+      case TALON_SRX:
+        // Zero timeout: queued, not awaited, so the result says nothing about the device
+        applySrxGains(pChanged, iChanged, dChanged, vChanged, kP, kI, kD, kV, 0);
+        srxArbitraryFeedForward = kS / 12.0;
         break;
       default:
-        // Other controller types not supported for hot-reload yet
         break;
     }
+    appliedKp = kP;
+    appliedKi = kI;
+    appliedKd = kD;
+    appliedKv = kV;
+    appliedKs = kS;
+  }
+
+  private Slot0Configs setTalonSlot0(double kP, double kI, double kD, double kV, double kS) {
+    talonSlot0.kP = kP;
+    talonSlot0.kI = kI;
+    talonSlot0.kD = kD;
+    talonSlot0.kV = kV;
+    talonSlot0.kS = kS;
+    return talonSlot0;
+  }
+
+  /**
+   * Converts Talon FX p/i/d (volts per rps of error) to the Spark's closed loop and sets the
+   * changed ones on {@code sparkConfig}. The Spark outputs duty cycle, so every gain is divided
+   * by the nominal voltage. Like the SRX, it runs every 1 ms and sums I and differences D per
+   * tick rather than per second, so kI is also divided by 1000 and kD multiplied by 1000.
+   */
+  private static void setSparkPid(SparkBaseConfig sparkConfig, boolean pChanged, boolean iChanged, boolean dChanged,
+      double kP, double kI, double kD) {
+    if (pChanged) {
+      sparkConfig.closedLoop.p(kP / NOMINAL_VOLTS, ClosedLoopSlot.kSlot0);
+    }
+    if (iChanged) {
+      sparkConfig.closedLoop.i(kI / NOMINAL_VOLTS / 1000.0, ClosedLoopSlot.kSlot0);
+    }
+    if (dChanged) {
+      sparkConfig.closedLoop.d(kD / NOMINAL_VOLTS * 1000.0, ClosedLoopSlot.kSlot0);
+    }
+  }
+
+  /**
+   * Converts Talon FX velocity gains to the SRX's native units (1023 = full output, ticks per
+   * 100 ms, 1 ms loop) and sends the changed ones. The SRX has no kS, so that goes out as an
+   * arbitrary feedforward with each velocity request instead. Hot-reload passes a zero timeout
+   * so nothing waits for the acknowledgement; boot waits, so a failure is known.
+   *
+   * @return true if every changed gain was accepted
+   */
+  private boolean applySrxGains(boolean pChanged, boolean iChanged, boolean dChanged, boolean vChanged,
+      double kP, double kI, double kD, double kV, int timeoutMs) {
+    double scale = 1023.0 / 12.0 / rpsToTalonSrxUnits(1.0);
+    boolean ok = true;
+    if (pChanged) {
+      ok &= talonSrx.config_kP(0, kP * scale, timeoutMs) == ErrorCode.OK;
+    }
+    if (iChanged) {
+      // Integrated every 1 ms rather than per second
+      ok &= talonSrx.config_kI(0, kI * scale / 1000.0, timeoutMs) == ErrorCode.OK;
+    }
+    if (dChanged) {
+      ok &= talonSrx.config_kD(0, kD * scale * 1000.0, timeoutMs) == ErrorCode.OK;
+    }
+    if (vChanged) {
+      ok &= talonSrx.config_kF(0, kV * scale, timeoutMs) == ErrorCode.OK;
+    }
+    return ok;
   }
 
   @Override
@@ -413,6 +665,14 @@ public class CanMotorWrapper implements UniversalMotor {
     }
   }
 
+  private double talonSignalValue(BaseStatusSignal signal) {
+    // Without a refresh group nobody else refreshes the signal, so fetch it here.
+    if (!signalsRegistered) {
+      BaseStatusSignal.refreshAll(signal);
+    }
+    return signal.getValueAsDouble();
+  }
+
   private double rpsToTalonSrxUnits(double rps) {
     return (rps * gearRatio) * (TALON_SRX_CPR / 10.0);
   }
@@ -422,10 +682,8 @@ public class CanMotorWrapper implements UniversalMotor {
   }
 
   private void applySparkIdleMode(boolean brake) {
-    SparkBaseConfig config = controllerType == ControllerType.SPARK_FLEX
-        ? new SparkFlexConfig()
-        : new SparkMaxConfig();
-    config.idleMode(brake ? IdleMode.kBrake : IdleMode.kCoast);
-    spark.configure(config, ResetMode.kNoResetSafeParameters, PersistMode.kNoPersistParameters);
+    sparkIdleConfig.idleMode(brake ? IdleMode.kBrake : IdleMode.kCoast);
+    // Async so the loop never waits for the Spark's acknowledgement
+    spark.configureAsync(sparkIdleConfig, ResetMode.kNoResetSafeParameters, PersistMode.kNoPersistParameters);
   }
 }
\ No newline at end of file
@@ -1,5 +1,7 @@
 package frc.robot.motor;
 
+import edu.wpi.first.wpilibj.RobotBase;
+
 public final class MotorFactory {
   private MotorFactory() {}
 
@@ -7,6 +9,10 @@ public final class MotorFactory {
     if (config.controllerType == ControllerType.PWM_SERVO) {
       return new PwmServoWrapper(config);
     }
+    if (RobotBase.isSimulation()) {
+      // Desktop runs get a physics model instead of hardware that isn't there
+      return new SimMotorWrapper(config);
+    }
     // TODO: Add PWM motor support if needed
     return new CanMotorWrapper(config);
   }
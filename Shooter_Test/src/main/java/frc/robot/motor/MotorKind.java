@@ -48,4 +48,24 @@ public enum MotorKind {
   public boolean isBrushless() {
     return !servo && !brushed;
   }
+
+  /**
+   * Spark encoder measurement period in ms. The REV defaults (NEO hall sensor 32 ms averaged
+   * over 8, quadrature 100 ms over 64) leave velocity roughly 100 ms behind; the low-latency
+   * preset trades a little noise for about a fifth of that.
+   */
+  public int getSparkMeasurementPeriodMs(boolean lowLatency) {
+    if (brushed) {
+      return lowLatency ? 10 : 100;
+    }
+    return lowLatency ? 16 : 32;
+  }
+
+  /** Spark encoder velocity averaging depth; see {@link #getSparkMeasurementPeriodMs}. */
+  public int getSparkAverageDepth(boolean lowLatency) {
+    if (brushed) {
+      return lowLatency ? 2 : 64;
+    }
+    return lowLatency ? 2 : 8;
+  }
 }
@@ -0,0 +1,44 @@
+package frc.robot.motor;
+
+import com.ctre.phoenix6.BaseStatusSignal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects the Phoenix 6 status signals of every device in a subsystem so they can be
+ * refreshed together with a single {@link BaseStatusSignal#refreshAll} call per loop.
+ *
+ * <p>Devices register their signals once at construction. The owning subsystem calls
+ * {@link #refreshAll()} at the top of {@code periodic()}, after which the device getters
+ * return the cached, time-aligned values without any further CAN/JNI reads.
+ */
+public class SignalRefreshGroup {
+  private final List<BaseStatusSignal> registered = new ArrayList<>();
+  private BaseStatusSignal[] signals = new BaseStatusSignal[0];
+
+  public void register(BaseStatusSignal... newSignals) {
+    for (BaseStatusSignal signal : newSignals) {
+      if (signal != null && !registered.contains(signal)) {
+        registered.add(signal);
+      }
+    }
+    signals = registered.toArray(new BaseStatusSignal[0]);
+  }
+
+  public void refreshAll() {
+    if (signals.length > 0) {
+      BaseStatusSignal.refreshAll(signals);
+    }
+  }
+
+  /** Sets the update rate of every registered signal, e.g. to feed a faster odometry thread. */
+  public void setUpdateFrequency(double hz) {
+    if (signals.length > 0) {
+      BaseStatusSignal.setUpdateFrequencyForAll(hz, signals);
+    }
+  }
+
+  public int size() {
+    return signals.length;
+  }
+}
@@ -0,0 +1,229 @@
+package frc.robot.motor;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.system.plant.DCMotor;
+import edu.wpi.first.math.system.plant.LinearSystemId;
+import edu.wpi.first.math.util.Units;
+import edu.wpi.first.wpilibj.RobotController;
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj.simulation.FlywheelSim;
+import frc.robot.motor.UniversalMotor.Mode;
+
+/**
+ * Physics-backed stand-in for a CAN motor, selected by {@link MotorFactory} in simulation.
+ * Models the motor as a {@link FlywheelSim} built from the {@link MotorKind} free-speed and
+ * stall data, so the shooter can be spun up, tuned and load-tested on a desktop.
+ *
+ * <p>Velocity control uses the configured kS/kV/kP in Talon units (volts, volts per rps), so
+ * gains tuned in simulation carry over. The sim advances whenever it is read or commanded.
+ */
+public class SimMotorWrapper implements UniversalMotor {
+  private static final double NOMINAL_VOLTAGE = 12.0;
+  /** Mechanism inertia, roughly a 4" shooter wheel with hub. */
+  private static final double FLYWHEEL_MOI_KG_M2 = 0.004;
+  private static final double MAX_STEP_SECONDS = 0.05;
+  private static final double AMBIENT_TEMP_CELSIUS = 25.0;
+
+  private final MotorConfiguration config;
+  private final DCMotor gearbox;
+  private final FlywheelSim sim;
+  private double kP;
+  private double kV;
+  private double kS;
+
+  private Mode controlMode = Mode.DUTY_CYCLE;
+  private Mode activeControl = Mode.VOLTAGE;
+  private double setpoint = 0.0;
+  private double positionRotations = 0.0;
+  private double lastUpdateSeconds = -1.0;
+  private double healthScore = 100.0;
+
+  public SimMotorWrapper(MotorConfiguration config) {
+    this.config = config;
+    gearbox = dcMotorFor(config.motorKind);
+    sim = new FlywheelSim(
+        LinearSystemId.createFlywheelSystem(gearbox, FLYWHEEL_MOI_KG_M2, config.gearRatio), gearbox);
+    kP = config.kP;
+    // Without a tuned kV, fall back to the motor's own back-EMF constant at the mechanism
+    kV = config.kV != 0.0 ? config.kV : 2.0 * Math.PI * config.gearRatio / gearbox.KvRadPerSecPerVolt;
+    kS = config.kS;
+  }
+
+  /**
+   * Builds a motor model from free speed, free current and stall current. Stall torque follows
+   * from Kt = 1 / Kv, which holds for an ideal DC motor in SI units.
+   */
+  private static DCMotor dcMotorFor(MotorKind kind) {
+    if (kind.getFreeSpeedRpm() <= 0.0 || kind.getStallCurrent() <= 0.0) {
+      return kind.isBrushed() ? DCMotor.getCIM(1) : DCMotor.getNEO(1);
+    }
+    double freeSpeedRadPerSec = Units.rotationsPerMinuteToRadiansPerSecond(kind.getFreeSpeedRpm());
+    double resistanceOhms = NOMINAL_VOLTAGE / kind.getStallCurrent();
+    double kvRadPerSecPerVolt =
+        freeSpeedRadPerSec / (NOMINAL_VOLTAGE - resistanceOhms * kind.getFreeCurrent());
+    double stallTorqueNm = kind.getStallCurrent() / kvRadPerSecPerVolt;
+    return new DCMotor(
+        NOMINAL_VOLTAGE, stallTorqueNm, kind.getStallCurrent(), kind.getFreeCurrent(), freeSpeedRadPerSec, 1);
+  }
+
+  @Override
+  public void setControlMode(Mode mode) {
+    this.controlMode = mode;
+  }
+
+  @Override
+  public Mode getControlMode() {
+    return controlMode;
+  }
+
+  @Override
+  public void set(double value) {
+    switch (controlMode) {
+      case VOLTAGE:
+        setVoltage(value);
+        break;
+      case VELOCITY:
+        setVelocityRps(value);
+        break;
+      case POSITION:
+      case SMART_MOTION:
+        setPositionRotations(value);
+        break;
+      case CURRENT:
+        setCurrentAmps(value);
+        break;
+      case DUTY_CYCLE:
+      default:
+        setVoltage(value * 12.0);
+        break;
+    }
+  }
+
+  @Override
+  public void setVoltage(double volts) {
+    command(Mode.VOLTAGE, volts);
+  }
+
+  @Override
+  public void setVelocityRps(double rps) {
+    command(Mode.VELOCITY, rps);
+  }
+
+  @Override
+  public void setPositionRotations(double rotations) {
+    command(Mode.POSITION, rotations);
+  }
+
+  @Override
+  public void setCurrentAmps(double amps) {
+    command(Mode.CURRENT, amps);
+  }
+
+  @Override
+  public double getVelocityRps() {
+    advance();
+    return sim.getAngularVelocityRPM() / 60.0;
+  }
+
+  @Override
+  public double getPositionRotations() {
+    advance();
+    return positionRotations;
+  }
+
+  @Override
+  public void setBrake(boolean brake) {}
+
+  @Override
+  public void stop() {
+    setVoltage(0.0);
+  }
+
+  @Override
+  public void close() {}
+
+  @Override
+  public double getCurrent() {
+    advance();
+    return Math.abs(sim.getCurrentDrawAmps());
+  }
+
+  @Override
+  public double getTemperature() {
+    return AMBIENT_TEMP_CELSIUS;
+  }
+
+  @Override
+  public double getHealthScore() {
+    return healthScore;
+  }
+
+  @Override
+  public void setHealthScore(double score) {
+    this.healthScore = score;
+  }
+
+  @Override
+  public String getDeviceName() {
+    return "SIM-" + config.canId;
+  }
+
+  @Override
+  public boolean isServo() {
+    return false;
+  }
+
+  @Override
+  public void updatePidConfig(double kP, double kI, double kD, double kV, double kS) {
+    this.kP = kP;
+    this.kV = kV;
+    this.kS = kS;
+  }
+
+  private void command(Mode mode, double value) {
+    advance();
+    activeControl = mode;
+    setpoint = value;
+  }
+
+  /** Integrates the plant from the last update to now under the last applied voltage. */
+  private void advance() {
+    double now = Timer.getFPGATimestamp();
+    if (lastUpdateSeconds < 0.0) {
+      lastUpdateSeconds = now;
+      return;
+    }
+    double dt = Math.min(now - lastUpdateSeconds, MAX_STEP_SECONDS);
+    if (dt <= 0.0) {
+      return;
+    }
+    sim.setInputVoltage(computeVolts());
+    sim.update(dt);
+    positionRotations += sim.getAngularVelocityRPM() / 60.0 * dt;
+    lastUpdateSeconds = now;
+  }
+
+  private double computeVolts() {
+    double volts;
+    switch (activeControl) {
+      case VELOCITY:
+        double error = setpoint - sim.getAngularVelocityRPM() / 60.0;
+        volts = kS * Math.signum(setpoint) + kV * setpoint + kP * error;
+        break;
+      case POSITION:
+        volts = kP * (setpoint - positionRotations);
+        break;
+      case CURRENT:
+        // Voltage that drives the requested current at the present motor speed
+        double motorRadPerSec = sim.getAngularVelocityRadPerSec() * config.gearRatio;
+        volts = gearbox.getVoltage(gearbox.getTorque(setpoint), motorRadPerSec);
+        break;
+      case VOLTAGE:
+      default:
+        volts = setpoint;
+        break;
+    }
+    double battery = RobotController.getBatteryVoltage();
+    return MathUtil.clamp(volts, -battery, battery);
+  }
+}
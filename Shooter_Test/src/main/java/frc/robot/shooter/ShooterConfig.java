@@ -54,6 +54,10 @@ public class ShooterConfig {
   @JsonProperty("mainShooterKs")
   public double mainShooterKs = 0.0;
 
+  // Field-oriented commutation on both Krakens; requires Phoenix Pro
+  @JsonProperty("enableFoc")
+  public boolean enableFoc = false;
+
   @JsonProperty("servoPwmChannel")
   public int servoPwmChannel = 0;
 
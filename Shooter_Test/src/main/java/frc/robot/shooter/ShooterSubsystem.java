@@ -3,15 +3,18 @@ package frc.robot.shooter;
 import edu.wpi.first.wpilibj.Servo;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
-import frc.robot.motor.CanMotorWrapper;
 import frc.robot.motor.ControllerType;
 import frc.robot.motor.MotorConfiguration;
+import frc.robot.motor.MotorFactory;
 import frc.robot.motor.MotorKind;
+import frc.robot.motor.SignalRefreshGroup;
+import frc.robot.motor.UniversalMotor;
 
 public class ShooterSubsystem extends SubsystemBase {
-  private final CanMotorWrapper m_preshooter;
-  private final CanMotorWrapper m_mainShooter;
+  private final UniversalMotor m_preshooter;
+  private final UniversalMotor m_mainShooter;
   private final Servo m_servo;
+  private final SignalRefreshGroup m_signals = new SignalRefreshGroup();
   private final double m_velocityToleranceRpm;
 
   private double m_preshooterSetpointRpm = 0.0;
@@ -19,7 +22,7 @@ public class ShooterSubsystem extends SubsystemBase {
 
   public ShooterSubsystem(ShooterConfig config) {
     // Create preshooter motor (Kraken X44)
-    m_preshooter = new CanMotorWrapper(
+    m_preshooter = MotorFactory.create(
         MotorConfiguration.builder(ControllerType.TALON_FX, MotorKind.KRAKEN_X44)
             .canId(config.preshooterCanId)
             .inverted(config.preshooterInverted)
@@ -29,10 +32,11 @@ public class ShooterSubsystem extends SubsystemBase {
             .kD(config.preshooterKd)
             .kV(config.preshooterKv)
             .kS(config.preshooterKs)
+            .enableFoc(config.enableFoc)
             .build());
 
     // Create main shooter motor (Kraken X60)
-    m_mainShooter = new CanMotorWrapper(
+    m_mainShooter = MotorFactory.create(
         MotorConfiguration.builder(ControllerType.TALON_FX, MotorKind.KRAKEN)
             .canId(config.mainShooterCanId)
             .inverted(config.mainShooterInverted)
@@ -42,8 +46,12 @@ public class ShooterSubsystem extends SubsystemBase {
             .kD(config.mainShooterKd)
             .kV(config.mainShooterKv)
             .kS(config.mainShooterKs)
+            .enableFoc(config.enableFoc)
             .build());
 
+    m_preshooter.registerSignals(m_signals);
+    m_mainShooter.registerSignals(m_signals);
+
     // Create servo
     m_servo = new Servo(config.servoPwmChannel);
 
@@ -156,6 +164,9 @@ public class ShooterSubsystem extends SubsystemBase {
 
   @Override
   public void periodic() {
+    // Refresh both Talons' status signals in one call so the readings below line up in time
+    m_signals.refreshAll();
+
     // Publish telemetry to SmartDashboard using hierarchical paths for Elastic Dashboard
     SmartDashboard.putNumber("Shooter/Preshooter/ActualRPM", getPreshooterVelocityRpm());
     SmartDashboard.putNumber("Shooter/MainShooter/ActualRPM", getMainShooterVelocityRpm());
@@ -54,7 +54,27 @@ public final class Constants {
 
     public static final boolean USE_WHEEL_ENCODERS = true;
     public static final boolean USE_CLOSED_LOOP = false;
-
+    // Closed-loop feedforward per side, in wheel meters (from SysId); all zero sends bare setpoints
+    public static final double DRIVE_KS = 0.0; // volts
+    public static final double DRIVE_KV = 0.0; // volts per m/s
+    public static final double DRIVE_KA = 0.0; // volts per m/s^2
+    // Open-loop full output in volts; speed stays repeatable until the battery sags below this
+    public static final double OPEN_LOOP_NOMINAL_VOLTS = 10.5;
+
+    // Sample odometry on a separate thread faster than the 50 Hz loop (opt-in)
+    public static final boolean ENABLE_ODOMETRY_THREAD = false;
+    public static final double ODOMETRY_FREQUENCY_HZ = 250.0;
+
+    // SysId drive characterization (test mode); lower the step if the robot runs out of room
+    public static final double SYSID_RAMP_VOLTS_PER_SECOND = 1.0;
+    public static final double SYSID_STEP_VOLTS = 7.0;
+    public static final double SYSID_TIMEOUT_SECONDS = 10.0;
+    public static final double SYSID_PAUSE_SECONDS = 3.0;
+
+    // Each side's motors come from the "left"/"right" lists in this deploy file, leader first
+    public static final String MOTOR_CONFIG_FILE = "motor-config.json";
+
+    // Used only when the JSON has no entry for a side
     public static final MotorConfig[] LEFT_MOTORS = new MotorConfig[] {
         new MotorConfig(MotorControllerType.SPARK_MAX, MotorKind.BRUSHLESS, 1, true, DRIVE_GEAR_RATIO, true)
         // Add followers here if needed.
@@ -66,6 +86,20 @@ public final class Constants {
     };
   }
 
+  public static final class PowerConstants {
+    // Shed current by priority before brownout instead of using only static limits (opt-in)
+    public static final boolean ENABLE_CURRENT_BUDGET = false;
+    public static final double TOTAL_CURRENT_BUDGET_AMPS = 300.0;
+    public static final double DRIVE_MIN_CURRENT_AMPS = 25.0;
+    public static final double DRIVE_MAX_CURRENT_AMPS = 60.0;
+  }
+
+  public static final class DiagnosticsConstants {
+    // Rotate through the CAN devices reading faults, resets and bus-off, within this much time per loop
+    public static final boolean ENABLE_FAULT_POLLING = true;
+    public static final double FAULT_POLL_BUDGET_MS = 0.25;
+  }
+
   public static final class AutoConstants {
     public enum AutoMode {
       NONE,
@@ -97,6 +131,8 @@ public final class Constants {
   public static final class LoggingConstants {
     public static final boolean ENABLE_LOGGING = true;
     public static final boolean ENABLE_DRIVE_TELEMETRY = true;
+    // Publish heap bytes allocated while sampling the drive each loop; should read 0 (opt-in)
+    public static final boolean ENABLE_ALLOCATION_MONITOR = false;
   }
 
   public static final class DrivebaseConstants {
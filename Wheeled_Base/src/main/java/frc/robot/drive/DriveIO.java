@@ -1,19 +1,50 @@
 package frc.robot.drive;
 
 import edu.wpi.first.math.kinematics.DifferentialDriveWheelSpeeds;
+import java.util.function.DoubleSupplier;
 
 public interface DriveIO {
   void setVoltages(double leftVolts, double rightVolts);
 
+  /** Normalised open-loop outputs in [-1, 1], battery-compensated by the implementation. */
+  void setOpenLoop(double left, double right);
+
   void setWheelSpeeds(DifferentialDriveWheelSpeeds speeds);
 
-  DifferentialDriveWheelSpeeds getWheelSpeeds();
+  /**
+   * Samples every motor once for this loop and writes wheel speeds, positions and their
+   * timestamp into the caller's {@code inputs}, in place. Allocates nothing.
+   */
+  void updateInputs(DriveIOInputs inputs);
 
-  double[] getWheelPositionsMeters();
+  /** The per-motor snapshots taken by the last {@link #updateInputs(DriveIOInputs)}, for logging. */
+  MotorInputs[] getMotorInputs();
 
   void resetEncoders();
 
   void stop();
 
   void setBrake(boolean brake);
+
+  /** Registers the drive motors with a robot-wide current budget at the given priority. */
+  void registerCurrentBudget(
+      CurrentBudgetSupervisor supervisor, CurrentBudgetSupervisor.Priority priority, double minAmps, double maxAmps);
+
+  /** Adds every drive motor to a fault poller's rotation. */
+  void registerFaults(FaultPoller poller);
+
+  /** Control frames sent across all drive motors (see CanMotorWrapper setpoint suppression). */
+  long getFramesSent();
+
+  /** Setpoint updates skipped across all drive motors because nothing changed. */
+  long getFramesSuppressed();
+
+  /** Registers every motor's status signals with the subsystem's per-loop refresh group. */
+  void registerSignals(SignalRefreshGroup group);
+
+  /**
+   * Creates wheel-position readers in meters, in {@link #getMotorInputs()} order, that
+   * {@link OdometryThread} can call off the main thread.
+   */
+  DoubleSupplier[] createOdometryPositionSources(SignalRefreshGroup odometrySignals);
 }
@@ -1,43 +1,98 @@
 package frc.robot.drive;
 
+import edu.wpi.first.math.controller.SimpleMotorFeedforward;
 import edu.wpi.first.math.kinematics.DifferentialDriveWheelSpeeds;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.TimedRobot;
 import frc.robot.Constants;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.function.DoubleSupplier;
 
 public class DriveIOTank implements DriveIO {
   private final MotorGroup left;
   private final MotorGroup right;
+  private final MotorInputs leftInputs = new MotorInputs();
+  private final MotorInputs rightInputs = new MotorInputs();
+  private final MotorInputs[] motorInputs = new MotorInputs[] {leftInputs, rightInputs};
+  private final VoltageCompensator voltageCompensator =
+      new VoltageCompensator(Constants.DriveConstants.OPEN_LOOP_NOMINAL_VOLTS);
+  private final SimpleMotorFeedforward feedforward = new SimpleMotorFeedforward(
+      Constants.DriveConstants.DRIVE_KS,
+      Constants.DriveConstants.DRIVE_KV,
+      Constants.DriveConstants.DRIVE_KA,
+      TimedRobot.kDefaultPeriod);
+  // Last closed-loop setpoints, so each new one can be fed forward as an acceleration
+  private double lastLeftMps = 0.0;
+  private double lastRightMps = 0.0;
 
   private final double wheelCircumference;
   private final boolean useSensors;
   private final boolean useClosedLoop;
 
   public DriveIOTank() {
-    // Load motor configuration from JSON
-    Map<String, MotorConfig> motorConfigs = MotorConfigLoader.loadConfigs("motor-config.json");
+    Map<String, MotorConfig[]> groups = MotorConfigLoader.loadGroups(Constants.DriveConstants.MOTOR_CONFIG_FILE);
+    MotorConfig[] leftConfigs = sideConfigs(groups, "left", "leftLeader", Constants.DriveConstants.LEFT_MOTORS);
+    MotorConfig[] rightConfigs = sideConfigs(groups, "right", "rightLeader", Constants.DriveConstants.RIGHT_MOTORS);
 
-    // Create motor groups from JSON config
-    MotorConfig leftConfig = motorConfigs.get("leftLeader");
-    MotorConfig rightConfig = motorConfigs.get("rightLeader");
-
-    if (leftConfig == null || rightConfig == null) {
-      throw new RuntimeException("Motor configuration not found in motor-config.json");
+    // Create both sides first, then push their configs in one parallel batch
+    Map<String, MotorConfig> driveConfigs = new LinkedHashMap<>();
+    for (int i = 0; i < leftConfigs.length; i++) {
+      driveConfigs.put("left" + i, leftConfigs[i]);
+    }
+    for (int i = 0; i < rightConfigs.length; i++) {
+      driveConfigs.put("right" + i, rightConfigs[i]);
     }
+    Map<String, UniversalMotor> motors = MotorFactory.createMotors(driveConfigs);
 
-    left = new MotorGroup(new MotorConfig[] { leftConfig });
-    right = new MotorGroup(new MotorConfig[] { rightConfig });
+    left = new MotorGroup(sideMotors(motors, "left", leftConfigs.length), leftConfigs);
+    right = new MotorGroup(sideMotors(motors, "right", rightConfigs.length), rightConfigs);
 
     wheelCircumference = Constants.DriveConstants.WHEEL_CIRCUMFERENCE_METERS;
     useSensors = Constants.DriveConstants.USE_WHEEL_ENCODERS;
     useClosedLoop = Constants.DriveConstants.USE_CLOSED_LOOP;
   }
 
+  /**
+   * One side's motors, leader first: the {@code side} list from the JSON, else the older
+   * single-motor {@code legacyKey} entry, else the arrays in {@link Constants.DriveConstants}.
+   */
+  private static MotorConfig[] sideConfigs(
+      Map<String, MotorConfig[]> groups, String side, String legacyKey, MotorConfig[] fallback) {
+    MotorConfig[] configs = groups.get(side);
+    if (configs == null) {
+      configs = groups.get(legacyKey);
+    }
+    if (configs == null) {
+      DriverStation.reportWarning(
+          "No \"" + side + "\" motors in " + Constants.DriveConstants.MOTOR_CONFIG_FILE + "; using Constants", false);
+      configs = fallback;
+    }
+    return configs;
+  }
+
+  private static List<UniversalMotor> sideMotors(Map<String, UniversalMotor> motors, String side, int count) {
+    List<UniversalMotor> sideMotors = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      sideMotors.add(motors.get(side + i));
+    }
+    return sideMotors;
+  }
+
   @Override
   public void setVoltages(double leftVolts, double rightVolts) {
+    resetFeedforward();
     left.setVoltage(leftVolts);
     right.setVoltage(rightVolts);
   }
 
+  @Override
+  public void setOpenLoop(double left, double right) {
+    setVoltages(voltageCompensator.toVolts(left), voltageCompensator.toVolts(right));
+  }
+
   @Override
   public void setWheelSpeeds(DifferentialDriveWheelSpeeds speeds) {
     if (!useClosedLoop) {
@@ -45,28 +100,38 @@ public class DriveIOTank implements DriveIO {
     }
     double leftRps = speeds.leftMetersPerSecond / wheelCircumference;
     double rightRps = speeds.rightMetersPerSecond / wheelCircumference;
-    left.setVelocityRps(leftRps);
-    right.setVelocityRps(rightRps);
+    double leftVolts = feedforward.calculateWithVelocities(lastLeftMps, speeds.leftMetersPerSecond);
+    double rightVolts = feedforward.calculateWithVelocities(lastRightMps, speeds.rightMetersPerSecond);
+    lastLeftMps = speeds.leftMetersPerSecond;
+    lastRightMps = speeds.rightMetersPerSecond;
+    left.setVelocityRps(leftRps, leftVolts);
+    right.setVelocityRps(rightRps, rightVolts);
+  }
+
+  /** The next closed-loop setpoint after open loop or a stop accelerates from rest. */
+  private void resetFeedforward() {
+    lastLeftMps = 0.0;
+    lastRightMps = 0.0;
   }
 
   @Override
-  public DifferentialDriveWheelSpeeds getWheelSpeeds() {
-    if (!useSensors) {
-      return new DifferentialDriveWheelSpeeds();
-    }
-    double leftMps = left.getVelocityRps() * wheelCircumference;
-    double rightMps = right.getVelocityRps() * wheelCircumference;
-    return new DifferentialDriveWheelSpeeds(leftMps, rightMps);
+  public void updateInputs(DriveIOInputs inputs) {
+    left.updateInputs(leftInputs);
+    right.updateInputs(rightInputs);
+    voltageCompensator.update();
+
+    // Without encoders everything reads zero
+    double metersPerRotation = useSensors ? wheelCircumference : 0.0;
+    inputs.wheelSpeeds.leftMetersPerSecond = leftInputs.velocityRps * metersPerRotation;
+    inputs.wheelSpeeds.rightMetersPerSecond = rightInputs.velocityRps * metersPerRotation;
+    inputs.wheelPositions.leftMeters = leftInputs.positionRotations * metersPerRotation;
+    inputs.wheelPositions.rightMeters = rightInputs.positionRotations * metersPerRotation;
+    inputs.timestampSeconds = (leftInputs.timestampSeconds + rightInputs.timestampSeconds) / 2.0;
   }
 
   @Override
-  public double[] getWheelPositionsMeters() {
-    if (!useSensors) {
-      return new double[] {0.0, 0.0};
-    }
-    double leftMeters = left.getPositionRotations() * wheelCircumference;
-    double rightMeters = right.getPositionRotations() * wheelCircumference;
-    return new double[] {leftMeters, rightMeters};
+  public MotorInputs[] getMotorInputs() {
+    return motorInputs;
   }
 
   @Override
@@ -80,6 +145,7 @@ public class DriveIOTank implements DriveIO {
 
   @Override
   public void stop() {
+    resetFeedforward();
     left.stop();
     right.stop();
   }
@@ -89,4 +155,51 @@ public class DriveIOTank implements DriveIO {
     left.setBrake(brake);
     right.setBrake(brake);
   }
+
+  @Override
+  public void registerCurrentBudget(
+      CurrentBudgetSupervisor supervisor, CurrentBudgetSupervisor.Priority priority, double minAmps, double maxAmps) {
+    // Followers draw about what the leader does, so the leader's sample stands in for each
+    int leftCount = left.size();
+    int rightCount = right.size();
+    supervisor.register("DriveLeft", priority, leftCount, minAmps, maxAmps,
+        () -> leftInputs.supplyCurrentAmps * leftCount, left::setCurrentLimit);
+    supervisor.register("DriveRight", priority, rightCount, minAmps, maxAmps,
+        () -> rightInputs.supplyCurrentAmps * rightCount, right::setCurrentLimit);
+  }
+
+  @Override
+  public void registerFaults(FaultPoller poller) {
+    left.registerFaults(poller, "DriveLeft");
+    right.registerFaults(poller, "DriveRight");
+  }
+
+  @Override
+  public long getFramesSent() {
+    return left.getFramesSent() + right.getFramesSent();
+  }
+
+  @Override
+  public long getFramesSuppressed() {
+    return left.getFramesSuppressed() + right.getFramesSuppressed();
+  }
+
+  @Override
+  public void registerSignals(SignalRefreshGroup group) {
+    left.registerSignals(group);
+    right.registerSignals(group);
+  }
+
+  @Override
+  public DoubleSupplier[] createOdometryPositionSources(SignalRefreshGroup odometrySignals) {
+    if (!useSensors) {
+      return new DoubleSupplier[] {() -> 0.0, () -> 0.0};
+    }
+    DoubleSupplier leftRotations = left.createOdometryPositionSource(odometrySignals);
+    DoubleSupplier rightRotations = right.createOdometryPositionSource(odometrySignals);
+    return new DoubleSupplier[] {
+      () -> leftRotations.getAsDouble() * wheelCircumference,
+      () -> rightRotations.getAsDouble() * wheelCircumference
+    };
+  }
 }
@@ -0,0 +1,141 @@
+package frc.robot.drive;
+
+import edu.wpi.first.hal.can.CANStatus;
+import edu.wpi.first.math.filter.Debouncer;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.RobotController;
+import edu.wpi.first.wpilibj.Timer;
+import frc.robot.utils.Alert;
+import frc.robot.utils.Alert.AlertType;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Watches motor controller health without letting it cost loop time.
+ *
+ * <p>Reading every fault signal on every device each loop adds up. Instead, {@link #poll()}
+ * runs last in the loop, picks up where the previous call stopped, and reads devices in turn
+ * until its time budget is spent (always at least one, never the same one twice). A full pass
+ * over a drive base takes a loop or two. At the start of each pass it also checks the roboRIO's
+ * CAN controller for bus-off events.
+ *
+ * <p>Each device gets alerts in the {@code Faults} group for active faults, sticky faults,
+ * resets and lost status frames. Active faults and lost frames are debounced so one dropped
+ * frame doesn't flash an error. Resets and bus-off are one-off events, so their alerts are held
+ * on for a few seconds. Every new event also goes to the Driver Station log with the raw bits.
+ */
+public class FaultPoller {
+  private static final String ALERT_GROUP = "Faults";
+  private static final double DEBOUNCE_SECONDS = 0.5;
+  private static final double EVENT_ALERT_HOLD_SECONDS = 10.0;
+
+  private static final class Device {
+    final String name;
+    final UniversalMotor motor;
+    final MotorFaults faults = new MotorFaults();
+    final Debouncer faultDebouncer = new Debouncer(DEBOUNCE_SECONDS, Debouncer.DebounceType.kBoth);
+    final Debouncer disconnectDebouncer = new Debouncer(DEBOUNCE_SECONDS, Debouncer.DebounceType.kBoth);
+    final Alert faultAlert;
+    final Alert stickyFaultAlert;
+    final Alert resetAlert;
+    final Alert disconnectAlert;
+    long lastStickyFaults = 0;
+    double lastResetSeconds = Double.NEGATIVE_INFINITY;
+    boolean polled = false;
+
+    Device(String name, UniversalMotor motor) {
+      this.name = name;
+      this.motor = motor;
+      faultAlert = new Alert(ALERT_GROUP, name + " fault", AlertType.ERROR);
+      disconnectAlert = new Alert(ALERT_GROUP, name + " not responding", AlertType.ERROR);
+      stickyFaultAlert = new Alert(ALERT_GROUP, name + " sticky fault", AlertType.WARNING);
+      resetAlert = new Alert(ALERT_GROUP, name + " reset", AlertType.WARNING);
+    }
+  }
+
+  private final long budgetNanos;
+  private final List<Device> devices = new ArrayList<>();
+  private final Alert busOffAlert = new Alert(ALERT_GROUP, "CAN bus-off", AlertType.ERROR);
+  private int next = 0;
+  private int lastBusOffCount = -1;
+  private double lastBusOffSeconds = Double.NEGATIVE_INFINITY;
+  private int devicesPolled = 0;
+  private double lastPollMs = 0.0;
+
+  /** @param budgetMs time {@link #poll()} may spend per call once it has read one device */
+  public FaultPoller(double budgetMs) {
+    budgetNanos = (long) (budgetMs * 1e6);
+  }
+
+  /** Adds a device to the rotation; {@code name} prefixes its alerts. */
+  public void register(String name, UniversalMotor motor) {
+    devices.add(new Device(name, motor));
+  }
+
+  /** Call once per loop, after everything time-critical has run. */
+  public void poll() {
+    if (devices.isEmpty()) {
+      return;
+    }
+    long start = System.nanoTime();
+    double now = Timer.getFPGATimestamp();
+    devicesPolled = 0;
+    do {
+      if (next == 0) {
+        pollBus(now);
+      }
+      pollDevice(devices.get(next), now);
+      next = (next + 1) % devices.size();
+      devicesPolled++;
+    } while (devicesPolled < devices.size() && System.nanoTime() - start < budgetNanos);
+    lastPollMs = (System.nanoTime() - start) / 1e6;
+  }
+
+  private void pollBus(double now) {
+    CANStatus status = RobotController.getCANStatus();
+    if (lastBusOffCount >= 0 && status.busOffCount > lastBusOffCount) {
+      lastBusOffSeconds = now;
+      DriverStation.reportWarning("CAN bus-off (" + status.busOffCount + " since boot)", false);
+    }
+    lastBusOffCount = status.busOffCount;
+    busOffAlert.set(now - lastBusOffSeconds < EVENT_ALERT_HOLD_SECONDS);
+  }
+
+  private void pollDevice(Device device, double now) {
+    MotorFaults faults = device.faults;
+    device.motor.readFaults(faults);
+
+    boolean faulted = device.faultDebouncer.calculate(faults.activeFaults != 0);
+    if (faulted && !device.faultAlert.get()) {
+      DriverStation.reportWarning(
+          device.name + " fault bits 0x" + Long.toHexString(faults.activeFaults), false);
+    }
+    device.faultAlert.set(faulted);
+    device.disconnectAlert.set(device.disconnectDebouncer.calculate(!faults.connected));
+
+    if (faults.stickyFaults != 0 && faults.stickyFaults != device.lastStickyFaults) {
+      DriverStation.reportWarning(
+          device.name + " sticky fault bits 0x" + Long.toHexString(faults.stickyFaults), false);
+    }
+    device.lastStickyFaults = faults.stickyFaults;
+    device.stickyFaultAlert.set(faults.stickyFaults != 0);
+
+    // The first read after boot reports the power-on reset itself
+    if (faults.resetOccurred && device.polled) {
+      device.lastResetSeconds = now;
+      DriverStation.reportWarning(device.name + " reset; its configuration may be lost", false);
+    }
+    device.polled = true;
+    device.resetAlert.set(now - device.lastResetSeconds < EVENT_ALERT_HOLD_SECONDS);
+  }
+
+  /** Devices read by the last {@link #poll()}. */
+  public int getDevicesPolled() {
+    return devicesPolled;
+  }
+
+  /** Time the last {@link #poll()} took, in milliseconds. */
+  public double getLastPollMs() {
+    return lastPollMs;
+  }
+}
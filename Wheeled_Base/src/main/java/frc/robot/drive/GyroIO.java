@@ -1,9 +1,31 @@
 package frc.robot.drive;
 
 import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.wpilibj.Timer;
+import java.util.function.DoubleSupplier;
 
 public interface GyroIO {
   Rotation2d getRotation();
 
   void reset();
+
+  /**
+   * FPGA time at which the heading returned by {@link #getRotation()} was measured. Gyros
+   * without timestamped samples report the time of the read.
+   */
+  default double getTimestampSeconds() {
+    return Timer.getFPGATimestamp();
+  }
+
+  /**
+   * Returns a yaw reader in degrees that the odometry thread may call. Phoenix 6 gyros register
+   * a private copy of their yaw signal with {@code odometrySignals}; the WPILib gyros are
+   * already safe to read from another thread.
+   */
+  default DoubleSupplier createOdometryYawSource(SignalRefreshGroup odometrySignals) {
+    return () -> getRotation().getDegrees();
+  }
+
+  /** Registers the gyro's status signals with a per-loop refresh group, if it has any. */
+  default void registerSignals(SignalRefreshGroup group) {}
 }
@@ -1,22 +1,50 @@
 package frc.robot.drive;
 
+import com.ctre.phoenix6.BaseStatusSignal;
+import com.ctre.phoenix6.Utils;
 import com.ctre.phoenix6.hardware.Pigeon2;
 import edu.wpi.first.math.geometry.Rotation2d;
+import java.util.function.DoubleSupplier;
 
 public class GyroIOPigeon2 implements GyroIO {
   private final Pigeon2 pigeon;
+  private final BaseStatusSignal yaw;
+  private boolean signalsRegistered = false;
 
   public GyroIOPigeon2(int canId) {
     pigeon = new Pigeon2(canId);
+    yaw = pigeon.getYaw();
   }
 
   @Override
   public Rotation2d getRotation() {
-    return Rotation2d.fromDegrees(pigeon.getYaw().getValueAsDouble());
+    if (!signalsRegistered) {
+      BaseStatusSignal.refreshAll(yaw);
+    }
+    return Rotation2d.fromDegrees(yaw.getValueAsDouble());
+  }
+
+  @Override
+  public double getTimestampSeconds() {
+    return Utils.currentTimeToFPGATime(yaw.getTimestamp().getTime());
   }
 
   @Override
   public void reset() {
     pigeon.setYaw(0.0);
   }
+
+  @Override
+  public DoubleSupplier createOdometryYawSource(SignalRefreshGroup odometrySignals) {
+    // A clone, so the odometry thread never refreshes the signal object the main loop reads
+    BaseStatusSignal odometryYaw = pigeon.getYaw().clone();
+    odometrySignals.register(odometryYaw);
+    return odometryYaw::getValueAsDouble;
+  }
+
+  @Override
+  public void registerSignals(SignalRefreshGroup group) {
+    group.register(yaw);
+    signalsRegistered = true;
+  }
 }
@@ -2,9 +2,23 @@ package frc.robot.drive;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonPOJOBuilder;
 import frc.robot.Constants.DriveConstants.MotorControllerType;
 import frc.robot.Constants.DriveConstants.MotorKind;
 
+/**
+ * One motor's configuration, read from {@code motor-config.json} or built in code. Only the
+ * controller type and motor kind are required; every optional field left unset is null and
+ * means "use the default".
+ *
+ * <pre>{@code
+ * MotorConfig config = MotorConfig.builder(MotorControllerType.TALON_FX, MotorKind.BRUSHLESS)
+ *     .id(1).gearRatio(8.45).useSensor(true).currentLimitAmps(60)
+ *     .build();
+ * }</pre>
+ */
+@JsonDeserialize(builder = MotorConfig.Builder.class)
 public final class MotorConfig {
   public final MotorControllerType controllerType;
   public final MotorKind motorKind;
@@ -20,6 +34,32 @@ public final class MotorConfig {
   public final Double kI;                 // Integral gain for PID (null = use default)
   public final Double kD;                 // Derivative gain for PID (null = use default)
   public final Double kF;                 // Feedforward gain for PID (null = use default)
+  public final Double setpointEpsilon;    // Skip resending setpoints closer than this (null = use default)
+  public final Double keepaliveSeconds;   // Resend an unchanged setpoint at least this often (null = use default)
+
+  // Optional status signal update rates in Hz; 0 turns the signal off (null = vendor default)
+  public final Double positionUpdateHz;
+  public final Double velocityUpdateHz;
+  public final Double currentUpdateHz;    // Also covers applied voltage
+  public final Double temperatureUpdateHz;
+  public final Boolean optimizeBusUtilization; // Turn off every signal the drive doesn't read (null = false)
+  public final Boolean follow;            // In a MotorGroup, follow the leader in hardware (null = false)
+
+  // Optional Spark velocity filter (null = low-latency preset, see SparkMotor)
+  public final Integer encoderMeasurementPeriodMs;
+  public final Integer encoderAverageDepth;
+
+  // Optional roboRIO DIO quadrature encoder for PWM controllers (used when useSensor is true)
+  public final Integer encoderChannelA;
+  public final Integer encoderChannelB;
+  public final Double encoderCountsPerRotation; // Datasheet CPR times encoder-to-mechanism gearing
+  public final Integer encoderDecoding;         // 1, 2 or 4x edge decoding (null = 4)
+  public final Integer encoderSamplesToAverage; // Edge periods the FPGA averages for rate, 1-127 (null = 4)
+
+  // Optional thermal derating of the current limit (CAN motors only)
+  public final Boolean thermalDerating;         // null = false
+  public final Double thermalDerateStartCelsius; // Limit starts falling here (null = 70)
+  public final Double thermalLimitCelsius;       // Limit reaches its floor here (null = 95)
 
   public MotorConfig(
       MotorControllerType controllerType,
@@ -28,34 +68,230 @@ public final class MotorConfig {
       boolean inverted,
       double gearRatio,
       boolean useSensor) {
-    this(controllerType, motorKind, id, inverted, gearRatio, useSensor, null, null, null, null, null, null);
+    this(builder(controllerType, motorKind).id(id).inverted(inverted).gearRatio(gearRatio).useSensor(useSensor));
   }
 
-  @JsonCreator
-  public MotorConfig(
-      @JsonProperty("controllerType") MotorControllerType controllerType,
-      @JsonProperty("motorKind") MotorKind motorKind,
-      @JsonProperty("id") int id,
-      @JsonProperty("inverted") boolean inverted,
-      @JsonProperty("gearRatio") double gearRatio,
-      @JsonProperty("useSensor") boolean useSensor,
-      @JsonProperty("currentLimitAmps") Integer currentLimitAmps,
-      @JsonProperty("brakeMode") Boolean brakeMode,
-      @JsonProperty("kP") Double kP,
-      @JsonProperty("kI") Double kI,
-      @JsonProperty("kD") Double kD,
-      @JsonProperty("kF") Double kF) {
-    this.controllerType = controllerType;
-    this.motorKind = motorKind;
-    this.id = id;
-    this.inverted = inverted;
-    this.gearRatio = gearRatio;
-    this.useSensor = useSensor;
-    this.currentLimitAmps = currentLimitAmps;
-    this.brakeMode = brakeMode;
-    this.kP = kP;
-    this.kI = kI;
-    this.kD = kD;
-    this.kF = kF;
+  private MotorConfig(Builder builder) {
+    controllerType = builder.controllerType;
+    motorKind = builder.motorKind;
+    id = builder.id;
+    inverted = builder.inverted;
+    gearRatio = builder.gearRatio;
+    useSensor = builder.useSensor;
+    currentLimitAmps = builder.currentLimitAmps;
+    brakeMode = builder.brakeMode;
+    kP = builder.kP;
+    kI = builder.kI;
+    kD = builder.kD;
+    kF = builder.kF;
+    setpointEpsilon = builder.setpointEpsilon;
+    keepaliveSeconds = builder.keepaliveSeconds;
+    positionUpdateHz = builder.positionUpdateHz;
+    velocityUpdateHz = builder.velocityUpdateHz;
+    currentUpdateHz = builder.currentUpdateHz;
+    temperatureUpdateHz = builder.temperatureUpdateHz;
+    optimizeBusUtilization = builder.optimizeBusUtilization;
+    follow = builder.follow;
+    encoderMeasurementPeriodMs = builder.encoderMeasurementPeriodMs;
+    encoderAverageDepth = builder.encoderAverageDepth;
+    encoderChannelA = builder.encoderChannelA;
+    encoderChannelB = builder.encoderChannelB;
+    encoderCountsPerRotation = builder.encoderCountsPerRotation;
+    encoderDecoding = builder.encoderDecoding;
+    encoderSamplesToAverage = builder.encoderSamplesToAverage;
+    thermalDerating = builder.thermalDerating;
+    thermalDerateStartCelsius = builder.thermalDerateStartCelsius;
+    thermalLimitCelsius = builder.thermalLimitCelsius;
+  }
+
+  public static Builder builder(MotorControllerType controllerType, MotorKind motorKind) {
+    return new Builder(controllerType, motorKind);
+  }
+
+  /** Named setters for every field, so a misplaced argument can't silently swap two values. */
+  @JsonPOJOBuilder(withPrefix = "")
+  public static final class Builder {
+    private final MotorControllerType controllerType;
+    private final MotorKind motorKind;
+    private int id = 0;
+    private boolean inverted = false;
+    private double gearRatio = 1.0;
+    private boolean useSensor = false;
+    private Integer currentLimitAmps;
+    private Boolean brakeMode;
+    private Double kP;
+    private Double kI;
+    private Double kD;
+    private Double kF;
+    private Double setpointEpsilon;
+    private Double keepaliveSeconds;
+    private Double positionUpdateHz;
+    private Double velocityUpdateHz;
+    private Double currentUpdateHz;
+    private Double temperatureUpdateHz;
+    private Boolean optimizeBusUtilization;
+    private Boolean follow;
+    private Integer encoderMeasurementPeriodMs;
+    private Integer encoderAverageDepth;
+    private Integer encoderChannelA;
+    private Integer encoderChannelB;
+    private Double encoderCountsPerRotation;
+    private Integer encoderDecoding;
+    private Integer encoderSamplesToAverage;
+    private Boolean thermalDerating;
+    private Double thermalDerateStartCelsius;
+    private Double thermalLimitCelsius;
+
+    @JsonCreator
+    private Builder(
+        @JsonProperty("controllerType") MotorControllerType controllerType,
+        @JsonProperty("motorKind") MotorKind motorKind) {
+      this.controllerType = controllerType;
+      this.motorKind = motorKind;
+    }
+
+    public Builder id(int id) {
+      this.id = id;
+      return this;
+    }
+
+    public Builder inverted(boolean inverted) {
+      this.inverted = inverted;
+      return this;
+    }
+
+    public Builder gearRatio(double gearRatio) {
+      this.gearRatio = gearRatio;
+      return this;
+    }
+
+    public Builder useSensor(boolean useSensor) {
+      this.useSensor = useSensor;
+      return this;
+    }
+
+    public Builder currentLimitAmps(Integer currentLimitAmps) {
+      this.currentLimitAmps = currentLimitAmps;
+      return this;
+    }
+
+    public Builder brakeMode(Boolean brakeMode) {
+      this.brakeMode = brakeMode;
+      return this;
+    }
+
+    public Builder kP(Double kP) {
+      this.kP = kP;
+      return this;
+    }
+
+    public Builder kI(Double kI) {
+      this.kI = kI;
+      return this;
+    }
+
+    public Builder kD(Double kD) {
+      this.kD = kD;
+      return this;
+    }
+
+    public Builder kF(Double kF) {
+      this.kF = kF;
+      return this;
+    }
+
+    public Builder setpointEpsilon(Double setpointEpsilon) {
+      this.setpointEpsilon = setpointEpsilon;
+      return this;
+    }
+
+    public Builder keepaliveSeconds(Double keepaliveSeconds) {
+      this.keepaliveSeconds = keepaliveSeconds;
+      return this;
+    }
+
+    public Builder positionUpdateHz(Double positionUpdateHz) {
+      this.positionUpdateHz = positionUpdateHz;
+      return this;
+    }
+
+    public Builder velocityUpdateHz(Double velocityUpdateHz) {
+      this.velocityUpdateHz = velocityUpdateHz;
+      return this;
+    }
+
+    public Builder currentUpdateHz(Double currentUpdateHz) {
+      this.currentUpdateHz = currentUpdateHz;
+      return this;
+    }
+
+    public Builder temperatureUpdateHz(Double temperatureUpdateHz) {
+      this.temperatureUpdateHz = temperatureUpdateHz;
+      return this;
+    }
+
+    public Builder optimizeBusUtilization(Boolean optimizeBusUtilization) {
+      this.optimizeBusUtilization = optimizeBusUtilization;
+      return this;
+    }
+
+    public Builder follow(Boolean follow) {
+      this.follow = follow;
+      return this;
+    }
+
+    public Builder encoderMeasurementPeriodMs(Integer encoderMeasurementPeriodMs) {
+      this.encoderMeasurementPeriodMs = encoderMeasurementPeriodMs;
+      return this;
+    }
+
+    public Builder encoderAverageDepth(Integer encoderAverageDepth) {
+      this.encoderAverageDepth = encoderAverageDepth;
+      return this;
+    }
+
+    public Builder encoderChannelA(Integer encoderChannelA) {
+      this.encoderChannelA = encoderChannelA;
+      return this;
+    }
+
+    public Builder encoderChannelB(Integer encoderChannelB) {
+      this.encoderChannelB = encoderChannelB;
+      return this;
+    }
+
+    public Builder encoderCountsPerRotation(Double encoderCountsPerRotation) {
+      this.encoderCountsPerRotation = encoderCountsPerRotation;
+      return this;
+    }
+
+    public Builder encoderDecoding(Integer encoderDecoding) {
+      this.encoderDecoding = encoderDecoding;
+      return this;
+    }
+
+    public Builder encoderSamplesToAverage(Integer encoderSamplesToAverage) {
+      this.encoderSamplesToAverage = encoderSamplesToAverage;
+      return this;
+    }
+
+    public Builder thermalDerating(Boolean thermalDerating) {
+      this.thermalDerating = thermalDerating;
+      return this;
+    }
+
+    public Builder thermalDerateStartCelsius(Double thermalDerateStartCelsius) {
+      this.thermalDerateStartCelsius = thermalDerateStartCelsius;
+      return this;
+    }
+
+    public Builder thermalLimitCelsius(Double thermalLimitCelsius) {
+      this.thermalLimitCelsius = thermalLimitCelsius;
+      return this;
+    }
+
+    public MotorConfig build() {
+      return new MotorConfig(this);
+    }
   }
 }
@@ -1,26 +1,85 @@
 package frc.robot.drive;
 
-import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.wpi.first.wpilibj.DriverStation;
 import edu.wpi.first.wpilibj.Filesystem;
 import java.io.File;
 import java.io.IOException;
 import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
+/**
+ * Reads motor configs from a deploy-directory JSON file.
+ *
+ * <p>Each top-level key names either one motor ({@code "frontLeft": {...}}) or a list of motors
+ * driven together ({@code "left": [{...}, {...}]}), leader first. Entries that aren't motors, such
+ * as {@code "gyro"}, are skipped.
+ */
 public final class MotorConfigLoader {
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
   private MotorConfigLoader() {}
 
+  /** Single-motor entries by name; list entries are left to {@link #loadGroups(String)}. */
   public static Map<String, MotorConfig> loadConfigs(String fileName) {
-    File deployDirectory = Filesystem.getDeployDirectory();
-    File configFile = new File(deployDirectory, fileName);
-    ObjectMapper mapper = new ObjectMapper();
+    Map<String, MotorConfig> configs = new LinkedHashMap<>();
+    for (Map.Entry<String, MotorConfig[]> entry : loadGroups(fileName).entrySet()) {
+      if (entry.getValue().length == 1) {
+        configs.put(entry.getKey(), entry.getValue()[0]);
+      }
+    }
+    return configs;
+  }
 
+  /** Every motor entry by name, with a single motor read as a list of one. */
+  public static Map<String, MotorConfig[]> loadGroups(String fileName) {
+    File configFile = new File(Filesystem.getDeployDirectory(), fileName);
+    JsonNode root;
     try {
-      return mapper.readValue(configFile, new TypeReference<Map<String, MotorConfig>>() {});
+      root = MAPPER.readTree(configFile);
     } catch (IOException e) {
       e.printStackTrace();
       return Collections.emptyMap();
     }
+
+    Map<String, MotorConfig[]> groups = new LinkedHashMap<>();
+    Iterator<Map.Entry<String, JsonNode>> fields = root.fields();
+    while (fields.hasNext()) {
+      Map.Entry<String, JsonNode> field = fields.next();
+      try {
+        MotorConfig[] group = readGroup(field.getValue());
+        if (group != null) {
+          groups.put(field.getKey(), group);
+        }
+      } catch (IOException e) {
+        DriverStation.reportError(
+            "Bad motor entry \"" + field.getKey() + "\" in " + fileName + ": " + e.getMessage(), false);
+      }
+    }
+    return groups;
+  }
+
+  private static MotorConfig[] readGroup(JsonNode node) throws IOException {
+    if (isMotor(node)) {
+      return new MotorConfig[] {MAPPER.treeToValue(node, MotorConfig.class)};
+    }
+    if (!node.isArray() || node.isEmpty()) {
+      return null;
+    }
+    MotorConfig[] group = new MotorConfig[node.size()];
+    for (int i = 0; i < group.length; i++) {
+      if (!isMotor(node.get(i))) {
+        throw new IOException("item " + i + " has no controllerType");
+      }
+      group[i] = MAPPER.treeToValue(node.get(i), MotorConfig.class);
+    }
+    return group;
+  }
+
+  private static boolean isMotor(JsonNode node) {
+    return node.isObject() && node.has("controllerType");
   }
 }
@@ -0,0 +1,128 @@
+package frc.robot.drive;
+
+import edu.wpi.first.wpilibj.DriverStation;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Boot-time configuration pipeline. Pushes every motor's configuration concurrently on a small
+ * bounded pool and retries devices that fail. Failures and retried devices are reported to the
+ * Driver Station with their timing; a clean boot reports nothing. The returned {@link Result}s
+ * carry the full per-device breakdown.
+ *
+ * <p>Each vendor configure call blocks for a CAN round trip (tens of milliseconds, longer on a
+ * busy bus), so doing them one after another stretches robot startup linearly with motor count.
+ */
+public final class MotorConfigurator {
+  /** Parallel configure calls. Kept small so boot traffic doesn't saturate the CAN bus. */
+  private static final int MAX_PARALLEL = 4;
+  private static final int MAX_ATTEMPTS = 3;
+
+  private MotorConfigurator() {}
+
+  /** Timing and outcome for one device. */
+  public static final class Result {
+    public final String name;
+    public final boolean ok;
+    public final int attempts;
+    public final double elapsedMs;
+
+    Result(String name, boolean ok, int attempts, double elapsedMs) {
+      this.name = name;
+      this.ok = ok;
+      this.attempts = attempts;
+      this.elapsedMs = elapsedMs;
+    }
+  }
+
+  /**
+   * Configures all motors and blocks until every device has finished or exhausted its retries.
+   *
+   * @param motors motors keyed by a display name, in report order
+   * @return per-device results in the same order as {@code motors}
+   */
+  public static List<Result> configureAll(Map<String, UniversalMotor> motors) {
+    long start = System.nanoTime();
+    List<Result> results = new ArrayList<>(motors.size());
+
+    if (motors.size() <= 1) {
+      // Not worth spinning up threads for a single device
+      for (Map.Entry<String, UniversalMotor> entry : motors.entrySet()) {
+        results.add(configureWithRetries(entry.getKey(), entry.getValue()));
+      }
+    } else {
+      ExecutorService pool = Executors.newFixedThreadPool(
+          Math.min(MAX_PARALLEL, motors.size()),
+          runnable -> {
+            Thread thread = new Thread(runnable, "MotorConfigurator");
+            thread.setDaemon(true);
+            return thread;
+          });
+      try {
+        Map<String, Future<Result>> pending = new LinkedHashMap<>();
+        for (Map.Entry<String, UniversalMotor> entry : motors.entrySet()) {
+          String name = entry.getKey();
+          UniversalMotor motor = entry.getValue();
+          pending.put(name, pool.submit(() -> configureWithRetries(name, motor)));
+        }
+        for (Map.Entry<String, Future<Result>> entry : pending.entrySet()) {
+          results.add(await(entry.getKey(), entry.getValue()));
+        }
+      } finally {
+        pool.shutdown();
+      }
+    }
+
+    report(results, (System.nanoTime() - start) / 1e6);
+    return results;
+  }
+
+  private static Result configureWithRetries(String name, UniversalMotor motor) {
+    long start = System.nanoTime();
+    int attempt = 0;
+    boolean ok = false;
+    while (!ok && attempt < MAX_ATTEMPTS) {
+      attempt++;
+      try {
+        ok = motor.applyConfiguration();
+      } catch (RuntimeException e) {
+        DriverStation.reportWarning(
+            "Motor " + name + " configuration threw on attempt " + attempt + ": " + e.getMessage(), false);
+      }
+    }
+    return new Result(name, ok, attempt, (System.nanoTime() - start) / 1e6);
+  }
+
+  private static Result await(String name, Future<Result> future) {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return new Result(name, false, 0, 0.0);
+    } catch (ExecutionException e) {
+      return new Result(name, false, MAX_ATTEMPTS, 0.0);
+    }
+  }
+
+  private static void report(List<Result> results, double totalMs) {
+    for (Result result : results) {
+      if (!result.ok) {
+        DriverStation.reportError(
+            String.format("Motor %s failed to configure after %d attempts (%.1f ms)",
+                result.name, result.attempts, result.elapsedMs),
+            false);
+      } else if (result.attempts > 1) {
+        DriverStation.reportWarning(
+            String.format("Motor %s configured on attempt %d (%.1f ms, boot config took %.1f ms)",
+                result.name, result.attempts, result.elapsedMs, totalMs),
+            false);
+      }
+    }
+  }
+}
@@ -1,42 +1,109 @@
 package frc.robot.drive;
 
+import edu.wpi.first.wpilibj.DriverStation;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.DoubleSupplier;
 
+/**
+ * Motors driving one side of the robot. The first motor is the leader. Motors whose config sets
+ * {@code follow} are put in native follower mode, so each loop only the leader (and any motor
+ * that could not follow) gets a control frame.
+ */
 public class MotorGroup {
   private final List<UniversalMotor> motors = new ArrayList<>();
+  /** Motors that need a control frame each loop: the leader plus any non-followers. */
+  private final List<UniversalMotor> commanded = new ArrayList<>();
+  /** Followers sampled each loop anyway, because their thermal model needs their own current. */
+  private final List<UniversalMotor> thermalFollowers = new ArrayList<>();
+  // Followers' samples only feed their own thermal model, so one scratch snapshot serves all
+  private final MotorInputs followerInputs = new MotorInputs();
   private final UniversalMotor leader;
   private final boolean useSensor;
 
   public MotorGroup(MotorConfig[] configs) {
-    if (configs.length == 0) {
+    this(createAll(configs), configs);
+  }
+
+  /**
+   * Wraps motors that were already created and configured, e.g. by {@link
+   * MotorFactory#createMotors} so both drive sides configure in one parallel batch.
+   *
+   * @param configs the configs the motors were created from, in the same order
+   */
+  public MotorGroup(List<UniversalMotor> groupMotors, MotorConfig[] configs) {
+    if (groupMotors.isEmpty()) {
       throw new IllegalArgumentException("MotorGroup requires at least one motor");
     }
-    for (MotorConfig config : configs) {
-      motors.add(MotorFactory.createMotor(config));
-    }
+    motors.addAll(groupMotors);
     leader = motors.get(0);
     useSensor = configs[0].useSensor;
+
+    commanded.add(leader);
+    for (int i = 1; i < motors.size(); i++) {
+      UniversalMotor motor = motors.get(i);
+      if (configs[i].thermalDerating != null && configs[i].thermalDerating) {
+        thermalFollowers.add(motor);
+      }
+      boolean follow = configs[i].follow != null && configs[i].follow;
+      if (!follow) {
+        commanded.add(motor);
+      } else if (!motor.follow(leader)) {
+        // e.g. a Spark can't follow a Talon; fall back to sending it the same setpoints
+        DriverStation.reportWarning(
+            "Motor " + configs[i].id + " can't follow motor " + configs[0].id + " in hardware", false);
+        commanded.add(motor);
+      }
+    }
+  }
+
+  private static List<UniversalMotor> createAll(MotorConfig[] configs) {
+    Map<String, MotorConfig> named = new LinkedHashMap<>();
+    for (int i = 0; i < configs.length; i++) {
+      named.put("group-" + i, configs[i]);
+    }
+    return new ArrayList<>(MotorFactory.createMotors(named).values());
   }
 
   public void setVoltage(double volts) {
-    for (UniversalMotor motor : motors) {
+    for (UniversalMotor motor : commanded) {
       motor.setVoltage(volts);
     }
   }
 
   public void setVelocityRps(double rps) {
-    for (UniversalMotor motor : motors) {
+    for (UniversalMotor motor : commanded) {
       motor.setVelocityRps(rps);
     }
   }
 
+  /** Velocity request with feedforward volts added to each commanded motor's own loop. */
+  public void setVelocityRps(double rps, double feedforwardVolts) {
+    for (UniversalMotor motor : commanded) {
+      motor.setVelocityRps(rps, feedforwardVolts);
+    }
+  }
+
   public void setPositionRotations(double rotations) {
-    for (UniversalMotor motor : motors) {
+    for (UniversalMotor motor : commanded) {
       motor.setPositionRotations(rotations);
     }
   }
 
+  public void updateInputs(MotorInputs inputs) {
+    // Followers mirror the leader, so the leader's readings represent the whole side.
+    leader.updateInputs(inputs);
+    for (int i = 0; i < thermalFollowers.size(); i++) {
+      thermalFollowers.get(i).updateInputs(followerInputs);
+    }
+    if (!useSensor) {
+      inputs.positionRotations = 0.0;
+      inputs.velocityRps = 0.0;
+    }
+  }
+
   public double getVelocityRps() {
     return useSensor ? leader.getVelocityRps() : 0.0;
   }
@@ -45,15 +112,62 @@ public class MotorGroup {
     return useSensor ? leader.getPositionRotations() : 0.0;
   }
 
+  public void registerSignals(SignalRefreshGroup group) {
+    // Only the leader is read back, plus any follower with its own thermal model.
+    leader.registerSignals(group);
+    for (int i = 0; i < thermalFollowers.size(); i++) {
+      thermalFollowers.get(i).registerSignals(group);
+    }
+  }
+
+  /** Thread-safe leader position reader for the odometry thread, in mechanism rotations. */
+  public DoubleSupplier createOdometryPositionSource(SignalRefreshGroup odometrySignals) {
+    return useSensor ? leader.createOdometryPositionSource(odometrySignals) : () -> 0.0;
+  }
+
   public void setBrake(boolean brake) {
     for (UniversalMotor motor : motors) {
       motor.setBrake(brake);
     }
   }
 
-  public void stop() {
+  /** Applies the same per-motor limit to every motor, followers included. */
+  public void setCurrentLimit(double amps) {
     for (UniversalMotor motor : motors) {
+      motor.setCurrentLimit(amps);
+    }
+  }
+
+  /** Adds every motor, followers included, to a fault poller; followers get an index suffix. */
+  public void registerFaults(FaultPoller poller, String name) {
+    for (int i = 0; i < motors.size(); i++) {
+      poller.register(i == 0 ? name : name + i, motors.get(i));
+    }
+  }
+
+  public int size() {
+    return motors.size();
+  }
+
+  public void stop() {
+    for (UniversalMotor motor : commanded) {
       motor.stop();
     }
   }
+
+  public long getFramesSent() {
+    long total = 0;
+    for (UniversalMotor motor : motors) {
+      total += motor.getFramesSent();
+    }
+    return total;
+  }
+
+  public long getFramesSuppressed() {
+    long total = 0;
+    for (UniversalMotor motor : motors) {
+      total += motor.getFramesSuppressed();
+    }
+    return total;
+  }
 }
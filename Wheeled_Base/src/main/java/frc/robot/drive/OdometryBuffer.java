@@ -0,0 +1,76 @@
+package frc.robot.drive;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fixed-size, lock-free ring buffer of odometry samples with exactly one producer (the odometry
+ * thread) and one consumer (the main robot loop). All storage is preallocated, so neither side
+ * allocates or blocks.
+ *
+ * <p>The producer writes a slot and then publishes it by advancing {@code head}; the consumer
+ * reads it and then frees it by advancing {@code tail}. When the buffer is full the newest
+ * sample is dropped and counted, since only the consumer may move {@code tail}.
+ */
+public class OdometryBuffer {
+  /** One drained sample. Reused by the consumer; positions are in the DriveIO wheel order. */
+  public static final class Sample {
+    public double timestampSeconds;
+    public double yawDegrees;
+    public final double[] positionsMeters;
+
+    public Sample(int wheelCount) {
+      positionsMeters = new double[wheelCount];
+    }
+  }
+
+  private final int mask;
+  private final double[] timestamps;
+  private final double[] yaws;
+  private final double[][] positions;
+  private final AtomicLong head = new AtomicLong(); // Next slot to write; producer only
+  private final AtomicLong tail = new AtomicLong(); // Next slot to read; consumer only
+  private volatile long dropped = 0;
+
+  /** @param capacity rounded up to a power of two */
+  public OdometryBuffer(int capacity, int wheelCount) {
+    int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+    mask = size - 1;
+    timestamps = new double[size];
+    yaws = new double[size];
+    positions = new double[size][wheelCount];
+  }
+
+  /** Producer side. Returns false and counts a drop if the consumer has fallen behind. */
+  public boolean offer(double timestampSeconds, double yawDegrees, double[] positionsMeters) {
+    long h = head.get();
+    if (h - tail.get() > mask) {
+      dropped++;
+      return false;
+    }
+    int slot = (int) (h & mask);
+    timestamps[slot] = timestampSeconds;
+    yaws[slot] = yawDegrees;
+    System.arraycopy(positionsMeters, 0, positions[slot], 0, positionsMeters.length);
+    head.lazySet(h + 1);
+    return true;
+  }
+
+  /** Consumer side. Copies the oldest sample into {@code out}; false when empty. */
+  public boolean poll(Sample out) {
+    long t = tail.get();
+    if (t >= head.get()) {
+      return false;
+    }
+    int slot = (int) (t & mask);
+    out.timestampSeconds = timestamps[slot];
+    out.yawDegrees = yaws[slot];
+    System.arraycopy(positions[slot], 0, out.positionsMeters, 0, out.positionsMeters.length);
+    tail.lazySet(t + 1);
+    return true;
+  }
+
+  /** Samples discarded because the buffer was full. */
+  public long getDropped() {
+    return dropped;
+  }
+}
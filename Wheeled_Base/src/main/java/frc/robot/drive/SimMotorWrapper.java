@@ -0,0 +1,196 @@
+package frc.robot.drive;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.controller.PIDController;
+import edu.wpi.first.math.system.plant.DCMotor;
+import edu.wpi.first.wpilibj.RobotController;
+import edu.wpi.first.wpilibj.Timer;
+import frc.robot.Constants.DriveConstants.MotorControllerType;
+import frc.robot.Constants.DriveConstants.MotorKind;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Physics-backed stand-in for a real motor, selected by {@link MotorFactory} when running in
+ * simulation. Models the motor and gearbox as the same first-order plant as WPILib's
+ * {@code DCMotorSim}, so drivetrains can be driven, profiled and load-tested on a desktop without
+ * hardware. The plant is stepped in closed form rather than through {@code DCMotorSim}, which
+ * allocates matrices on every update, so the sim path stays allocation-free like the robot's.
+ *
+ * <p>Positions and velocities are reported at the mechanism (after {@code gearRatio}), like the
+ * real wrappers. The sim advances to the current time whenever it is read or commanded.
+ */
+public class SimMotorWrapper implements UniversalMotor {
+  /** Load inertia at the mechanism, roughly one wheel's share of a 50 kg robot. */
+  private static final double LOAD_MOI_KG_M2 = 0.05;
+  private static final double MAX_STEP_SECONDS = 0.05;
+  private static final double AMBIENT_TEMP_CELSIUS = 25.0;
+  private static final double DEFAULT_POSITION_KP = 12.0; // Volts per rotation of error
+
+  private enum ControlKind {
+    VOLTAGE,
+    VELOCITY,
+    POSITION
+  }
+
+  private final DCMotor gearbox;
+  private final double gearing;
+  // Mechanism plant: dw/dt = velocityDecay * w + voltsToAccel * V, from the motor constants
+  private final double velocityDecay;
+  private final double voltsToAccel;
+  private double positionRad = 0.0;
+  private double velocityRadPerSec = 0.0;
+  private final double velocityKp;
+  private final PIDController positionController;
+
+  private ControlKind control = ControlKind.VOLTAGE;
+  private double setpoint = 0.0;
+  private double feedforwardVolts = 0.0;
+  private double appliedVolts = 0.0;
+  private double lastUpdateSeconds = -1.0;
+  // Published for the odometry thread, which must not step the sim itself
+  private volatile double publishedPositionRotations = 0.0;
+
+  public SimMotorWrapper(MotorConfig config) {
+    gearbox = dcMotorFor(config.controllerType, config.motorKind);
+    gearing = config.gearRatio;
+    // Same A and B as LinearSystemId.createDCMotorSystem
+    velocityDecay = -gearing * gearing * gearbox.KtNMPerAmp
+        / (gearbox.KvRadPerSecPerVolt * gearbox.rOhms * LOAD_MOI_KG_M2);
+    voltsToAccel = gearing * gearbox.KtNMPerAmp / (gearbox.rOhms * LOAD_MOI_KG_M2);
+    velocityKp = config.kP != null ? config.kP : 0.0;
+    positionController = new PIDController(config.kP != null ? config.kP : DEFAULT_POSITION_KP, 0.0, 0.0);
+  }
+
+  /** Picks the motor model the controller type usually drives. */
+  private static DCMotor dcMotorFor(MotorControllerType type, MotorKind kind) {
+    if (kind == MotorKind.BRUSHED) {
+      return DCMotor.getCIM(1);
+    }
+    switch (type) {
+      case SPARK_FLEX:
+        return DCMotor.getNeoVortex(1);
+      case TALON_FX:
+        return DCMotor.getKrakenX60(1);
+      default:
+        return DCMotor.getNEO(1);
+    }
+  }
+
+  @Override
+  public void setVoltage(double volts) {
+    advance();
+    control = ControlKind.VOLTAGE;
+    setpoint = volts;
+  }
+
+  @Override
+  public void setVelocityRps(double rps) {
+    setVelocityRps(rps, 0.0);
+  }
+
+  @Override
+  public void setVelocityRps(double rps, double feedforwardVolts) {
+    advance();
+    control = ControlKind.VELOCITY;
+    setpoint = rps;
+    this.feedforwardVolts = feedforwardVolts;
+  }
+
+  @Override
+  public void setPositionRotations(double rotations) {
+    advance();
+    control = ControlKind.POSITION;
+    setpoint = rotations;
+  }
+
+  @Override
+  public double getVelocityRps() {
+    advance();
+    return velocityRps();
+  }
+
+  @Override
+  public double getPositionRotations() {
+    advance();
+    return positionRotations();
+  }
+
+  @Override
+  public void updateInputs(MotorInputs inputs) {
+    advance();
+    inputs.timestampSeconds = lastUpdateSeconds;
+    inputs.positionRotations = positionRotations();
+    inputs.velocityRps = velocityRps();
+    inputs.appliedVolts = appliedVolts;
+    inputs.currentAmps = Math.abs(gearbox.getCurrent(velocityRadPerSec * gearing, appliedVolts));
+    inputs.supplyCurrentAmps = inputs.currentAmps * Math.abs(appliedVolts) / RobotController.getBatteryVoltage();
+    inputs.temperatureCelsius = AMBIENT_TEMP_CELSIUS;
+  }
+
+  @Override
+  public DoubleSupplier createOdometryPositionSource(SignalRefreshGroup odometrySignals) {
+    return () -> publishedPositionRotations;
+  }
+
+  @Override
+  public void setBrake(boolean brake) {
+    // The sim has no neutral-mode model; stop() always coasts to zero volts.
+  }
+
+  @Override
+  public void stop() {
+    setVoltage(0.0);
+  }
+
+  /** Integrates the plant from the last update to now under the last applied voltage. */
+  private void advance() {
+    double now = Timer.getFPGATimestamp();
+    if (lastUpdateSeconds < 0.0) {
+      lastUpdateSeconds = now;
+      return;
+    }
+    double dt = Math.min(now - lastUpdateSeconds, MAX_STEP_SECONDS);
+    if (dt <= 0.0) {
+      return;
+    }
+    appliedVolts = computeVolts();
+    // Exact solution over dt with the voltage held: velocity relaxes toward its steady state
+    double steadyRadPerSec = -voltsToAccel * appliedVolts / velocityDecay;
+    double decay = Math.exp(velocityDecay * dt);
+    positionRad += steadyRadPerSec * dt + (velocityRadPerSec - steadyRadPerSec) * (decay - 1.0) / velocityDecay;
+    velocityRadPerSec = steadyRadPerSec + (velocityRadPerSec - steadyRadPerSec) * decay;
+    publishedPositionRotations = positionRotations();
+    lastUpdateSeconds = now;
+  }
+
+  private double positionRotations() {
+    return positionRad / (2.0 * Math.PI);
+  }
+
+  private double velocityRps() {
+    return velocityRadPerSec / (2.0 * Math.PI);
+  }
+
+  private double computeVolts() {
+    double volts;
+    switch (control) {
+      case VELOCITY:
+        // Feedforward from the motor model plus optional P, in volts per rps like the Talon slot.
+        // A caller's characterized feedforward replaces the slot's kF, so it replaces the model.
+        double motorRadPerSec = setpoint * 2.0 * Math.PI * gearing;
+        double error = setpoint - velocityRps();
+        double feedforward = feedforwardVolts != 0.0 ? feedforwardVolts : gearbox.getVoltage(0.0, motorRadPerSec);
+        volts = feedforward + velocityKp * error;
+        break;
+      case POSITION:
+        volts = positionController.calculate(positionRotations(), setpoint);
+        break;
+      case VOLTAGE:
+      default:
+        volts = setpoint;
+        break;
+    }
+    double battery = RobotController.getBatteryVoltage();
+    return MathUtil.clamp(volts, -battery, battery);
+  }
+}
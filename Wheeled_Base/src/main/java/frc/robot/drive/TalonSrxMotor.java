@@ -0,0 +1,185 @@
+package frc.robot.drive;
+
+import com.ctre.phoenix.ErrorCode;
+import com.ctre.phoenix.motorcontrol.ControlMode;
+import com.ctre.phoenix.motorcontrol.DemandType;
+import com.ctre.phoenix.motorcontrol.Faults;
+import com.ctre.phoenix.motorcontrol.InvertType;
+import com.ctre.phoenix.motorcontrol.NeutralMode;
+import com.ctre.phoenix.motorcontrol.StatusFrameEnhanced;
+import com.ctre.phoenix.motorcontrol.StickyFaults;
+import com.ctre.phoenix.motorcontrol.can.WPI_TalonSRX;
+
+/** CTRE Talon SRX (Phoenix 5) with a quadrature encoder on the data port. */
+public final class TalonSrxMotor extends CanMotorWrapper {
+  private static final int TALON_SRX_CPR = 4096;
+  // Phoenix 5 status frame periods are limited to 255 ms
+  private static final int SLOWEST_FRAME_PERIOD_MS = 255;
+  // Voltage requests are scaled against this on the Talon, which reads the battery every 1 ms
+  private static final double VOLTAGE_COMP_SATURATION_VOLTS = 12.0;
+
+  private final WPI_TalonSRX talon;
+  // Reused by readFaults
+  private final Faults talonFaults = new Faults();
+  private final StickyFaults talonStickyFaults = new StickyFaults();
+  // The continuous limit is the SRX's only runtime limit, so it carries the lower of these
+  private double budgetLimitAmps = Double.MAX_VALUE;
+  private double thermalLimitAmps = Double.MAX_VALUE;
+
+  public TalonSrxMotor(MotorConfig config) {
+    super(config);
+    talon = new WPI_TalonSRX(config.id);
+  }
+
+  @Override
+  public boolean applyConfiguration() {
+    boolean ok = true;
+    talon.setInverted(config.inverted);
+
+    // Apply brake mode if specified, otherwise default to brake
+    talon.setNeutralMode(isBrakeEnabled() ? NeutralMode.Brake : NeutralMode.Coast);
+
+    ok &= talon.configVoltageCompSaturation(VOLTAGE_COMP_SATURATION_VOLTS) == ErrorCode.OK;
+    talon.enableVoltageCompensation(true);
+
+    // Apply current limit if specified
+    if (config.currentLimitAmps != null) {
+      ok &= talon.configContinuousCurrentLimit(config.currentLimitAmps) == ErrorCode.OK;
+      talon.enableCurrentLimit(true);
+    }
+
+    // Apply PID gains if specified (slot 0)
+    if (config.kP != null) {
+      ok &= talon.config_kP(0, config.kP) == ErrorCode.OK;
+    }
+    if (config.kI != null) {
+      ok &= talon.config_kI(0, config.kI) == ErrorCode.OK;
+    }
+    if (config.kD != null) {
+      ok &= talon.config_kD(0, config.kD) == ErrorCode.OK;
+    }
+    if (config.kF != null) {
+      ok &= talon.config_kF(0, config.kF) == ErrorCode.OK;
+    }
+
+    ok &= applyStatusFramePeriods();
+    return ok;
+  }
+
+  private boolean applyStatusFramePeriods() {
+    boolean ok = true;
+    // Feedback0 carries sensor position, velocity and current, so it runs at the fastest of them
+    double feedbackHz = Math.max(positionRateHz(), Math.max(velocityRateHz(), currentRateHz()));
+    if (feedbackHz != RATE_UNCHANGED) {
+      ok &= talon.setStatusFramePeriod(StatusFrameEnhanced.Status_2_Feedback0, periodMs(feedbackHz))
+          == ErrorCode.OK;
+    }
+    double temperatureHz = temperatureRateHz();
+    if (temperatureHz != RATE_UNCHANGED) {
+      ok &= talon.setStatusFramePeriod(StatusFrameEnhanced.Status_4_AinTempVbat, periodMs(temperatureHz))
+          == ErrorCode.OK;
+    }
+    // Status_1_General is left alone: it carries the applied output and drives follower updates
+    return ok;
+  }
+
+  private static int periodMs(double hz) {
+    if (hz <= 0.0) {
+      return SLOWEST_FRAME_PERIOD_MS;
+    }
+    return (int) Math.max(1, Math.min(SLOWEST_FRAME_PERIOD_MS, Math.round(1000.0 / hz)));
+  }
+
+  @Override
+  protected void applyVoltage(double volts) {
+    talon.set(ControlMode.PercentOutput, volts / VOLTAGE_COMP_SATURATION_VOLTS);
+  }
+
+  @Override
+  protected void applyVelocity(double rps, double feedforwardVolts) {
+    talon.set(ControlMode.Velocity, rpsToTalonSrxUnits(rps),
+        DemandType.ArbitraryFeedForward, feedforwardVolts / VOLTAGE_COMP_SATURATION_VOLTS);
+  }
+
+  @Override
+  protected void applyPosition(double rotations) {
+    talon.set(ControlMode.Position, rotationsToTalonSrxUnits(rotations));
+  }
+
+  @Override
+  protected double readVelocityRps() {
+    return talon.getSelectedSensorVelocity() / TALON_SRX_CPR * 10.0 / gearRatio;
+  }
+
+  @Override
+  protected double readPositionRotations() {
+    return talon.getSelectedSensorPosition() / TALON_SRX_CPR / gearRatio;
+  }
+
+  @Override
+  protected void readElectricalInputs(MotorInputs inputs) {
+    inputs.appliedVolts = talon.getMotorOutputVoltage();
+    inputs.currentAmps = talon.getStatorCurrent();
+    inputs.supplyCurrentAmps = talon.getSupplyCurrent();
+    inputs.temperatureCelsius = talon.getTemperature();
+  }
+
+  @Override
+  public void readFaults(MotorFaults faults) {
+    // Both come from Status_1_General, which is never slowed down
+    faults.connected = talon.getFaults(talonFaults) == ErrorCode.OK;
+    talon.getStickyFaults(talonStickyFaults);
+    faults.activeFaults = talonFaults.toBitfield();
+    faults.stickyFaults = talonStickyFaults.toBitfield();
+    faults.resetOccurred = talon.hasResetOccurred();
+  }
+
+  @Override
+  protected void applyNeutralMode(boolean brake) {
+    talon.setNeutralMode(brake ? NeutralMode.Brake : NeutralMode.Coast);
+  }
+
+  @Override
+  protected void applySupplyLimit(double amps) {
+    budgetLimitAmps = amps;
+    sendContinuousCurrentLimit();
+  }
+
+  @Override
+  protected void applyStatorLimit(double amps) {
+    // The SRX can only limit supply current, which stalls far below the heating stator current.
+    // It is still the nearest it has, so a hot SRX motor at least sheds load at speed.
+    thermalLimitAmps = amps;
+    sendContinuousCurrentLimit();
+  }
+
+  private void sendContinuousCurrentLimit() {
+    // The SRX limits supply current. Zero timeout: queue the config frame instead of waiting
+    // for the acknowledgement
+    talon.configContinuousCurrentLimit((int) Math.min(budgetLimitAmps, thermalLimitAmps), 0);
+    talon.enableCurrentLimit(true);
+  }
+
+  @Override
+  protected boolean applyFollow(CanMotorWrapper leader, boolean opposeLeader) {
+    if (!(leader instanceof TalonSrxMotor)) {
+      return false;
+    }
+    talon.follow(((TalonSrxMotor) leader).talon);
+    talon.setInverted(opposeLeader ? InvertType.OpposeMaster : InvertType.FollowMaster);
+    return true;
+  }
+
+  @Override
+  protected void applyStop() {
+    talon.stopMotor();
+  }
+
+  private double rpsToTalonSrxUnits(double rps) {
+    return (rps * gearRatio) * (TALON_SRX_CPR / 10.0);
+  }
+
+  private double rotationsToTalonSrxUnits(double rotations) {
+    return rotations * gearRatio * TALON_SRX_CPR;
+  }
+}
@@ -0,0 +1,55 @@
+package frc.robot.drive;
+
+import edu.wpi.first.math.filter.LinearFilter;
+import edu.wpi.first.wpilibj.RobotController;
+
+/**
+ * Turns normalised open-loop outputs into volts that the battery can deliver for the whole match.
+ *
+ * <p>Full output maps to a fixed nominal voltage below a fresh battery's resting voltage instead
+ * of 12 V, so the same stick position gives the same speed as the battery sags. The motor
+ * controllers hold that voltage on-device. If the filtered battery voltage drops below nominal,
+ * every output is scaled by the same factor so the ratio between wheels, and so the steering,
+ * is kept rather than clipped.
+ */
+public class VoltageCompensator {
+  /** Lowest battery voltage open-loop speed is held repeatable down to. */
+  public static final double DEFAULT_NOMINAL_VOLTS = 10.5;
+  private static final double FILTER_TIME_CONSTANT_SECONDS = 0.1;
+  private static final double LOOP_PERIOD_SECONDS = 0.02;
+
+  private final double nominalVolts;
+  private final LinearFilter batteryFilter =
+      LinearFilter.singlePoleIIR(FILTER_TIME_CONSTANT_SECONDS, LOOP_PERIOD_SECONDS);
+  private double filteredBatteryVolts;
+  private double scale = 1.0;
+
+  public VoltageCompensator() {
+    this(DEFAULT_NOMINAL_VOLTS);
+  }
+
+  public VoltageCompensator(double nominalVolts) {
+    this.nominalVolts = nominalVolts;
+    filteredBatteryVolts = RobotController.getBatteryVoltage();
+    batteryFilter.reset(new double[] {filteredBatteryVolts}, new double[] {filteredBatteryVolts});
+  }
+
+  /** Samples the battery once per loop; the filter drops the spikes caused by current steps. */
+  public void update() {
+    filteredBatteryVolts = batteryFilter.calculate(RobotController.getBatteryVoltage());
+    scale = Math.min(1.0, filteredBatteryVolts / nominalVolts);
+  }
+
+  /** Volts for a normalised output in [-1, 1]. */
+  public double toVolts(double output) {
+    return output * nominalVolts * scale;
+  }
+
+  public double getNominalVolts() {
+    return nominalVolts;
+  }
+
+  public double getFilteredBatteryVolts() {
+    return filteredBatteryVolts;
+  }
+}
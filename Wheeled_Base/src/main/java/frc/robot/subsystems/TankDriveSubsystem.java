@@ -1,5 +1,11 @@
 package frc.robot.subsystems;
 
+import static edu.wpi.first.units.Units.Meters;
+import static edu.wpi.first.units.Units.MetersPerSecond;
+import static edu.wpi.first.units.Units.Second;
+import static edu.wpi.first.units.Units.Seconds;
+import static edu.wpi.first.units.Units.Volts;
+
 import com.pathplanner.lib.auto.AutoBuilder;
 import com.pathplanner.lib.commands.PathfindingCommand;
 import com.pathplanner.lib.config.RobotConfig;
@@ -13,44 +19,85 @@ import edu.wpi.first.math.kinematics.DifferentialDriveKinematics;
 import edu.wpi.first.math.kinematics.DifferentialDriveWheelPositions;
 import edu.wpi.first.math.kinematics.DifferentialDriveWheelSpeeds;
 import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.units.measure.MutDistance;
+import edu.wpi.first.units.measure.MutLinearVelocity;
+import edu.wpi.first.units.measure.MutVoltage;
+import edu.wpi.first.wpilibj.RobotController;
+import edu.wpi.first.wpilibj.sysid.SysIdRoutineLog;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.CommandScheduler;
 import edu.wpi.first.wpilibj2.command.Commands;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import edu.wpi.first.wpilibj2.command.sysid.SysIdRoutine;
 import frc.robot.Constants;
+import frc.robot.drive.CurrentBudgetSupervisor;
+import frc.robot.drive.FaultPoller;
 import frc.robot.drive.DriveIO;
+import frc.robot.drive.DriveIOInputs;
 import frc.robot.drive.DriveIOTank;
 import frc.robot.drive.GyroIO;
 import frc.robot.drive.GyroIOAdis16470;
 import frc.robot.drive.GyroIOAdxrs450;
 import frc.robot.drive.GyroIONone;
 import frc.robot.drive.GyroIOPigeon2;
+import frc.robot.drive.MotorInputs;
+import frc.robot.drive.OdometryBuffer;
+import frc.robot.drive.OdometryThread;
+import frc.robot.drive.SignalRefreshGroup;
+import frc.robot.utils.AllocationMonitor;
 import frc.robot.vision.Vision;
 import java.util.function.DoubleSupplier;
 
 public class TankDriveSubsystem extends SubsystemBase {
   private final DriveIO driveIO = new DriveIOTank();
   private final GyroIO gyro = createGyro();
+  private final SignalRefreshGroup signals = new SignalRefreshGroup();
+  private final DriveIOInputs inputs = new DriveIOInputs();
+  private final AllocationMonitor inputsAllocation =
+      Constants.LoggingConstants.ENABLE_ALLOCATION_MONITOR ? new AllocationMonitor() : null;
+  // Reused for every teleop command
+  private final DifferentialDriveWheelSpeeds commandedSpeeds = new DifferentialDriveWheelSpeeds();
 
   private final DifferentialDriveKinematics kinematics =
       new DifferentialDriveKinematics(Constants.DriveConstants.TRACK_WIDTH_METERS);
 
   private final DifferentialDrivePoseEstimator poseEstimator =
       Constants.DriveConstants.USE_WHEEL_ENCODERS && Constants.DriveConstants.USE_GYRO
-          ? new DifferentialDrivePoseEstimator(
-              kinematics,
-              gyro.getRotation(),
-              getWheelPositions().leftMeters,
-              getWheelPositions().rightMeters,
-              new Pose2d())
+          ? createPoseEstimator()
           : null;
 
   private final Vision vision = Constants.VisionConstants.ENABLE_VISION && poseEstimator != null
       ? new Vision(Constants.VisionConstants.MAX_LATENCY_SECONDS)
       : null;
 
+  private final OdometryThread odometryThread =
+      Constants.DriveConstants.ENABLE_ODOMETRY_THREAD && poseEstimator != null
+          ? new OdometryThread(driveIO, gyro, Constants.DriveConstants.ODOMETRY_FREQUENCY_HZ)
+          : null;
+  private final OdometryBuffer.Sample odometrySample = new OdometryBuffer.Sample(2);
+
+  // Reused by the SysId log callback, which runs every loop of a test
+  private final MutVoltage sysIdVolts = Volts.mutable(0.0);
+  private final MutDistance sysIdDistance = Meters.mutable(0.0);
+  private final MutLinearVelocity sysIdVelocity = MetersPerSecond.mutable(0.0);
+  private final SysIdRoutine sysIdRoutine = new SysIdRoutine(
+      new SysIdRoutine.Config(
+          Volts.per(Second).of(Constants.DriveConstants.SYSID_RAMP_VOLTS_PER_SECOND),
+          Volts.of(Constants.DriveConstants.SYSID_STEP_VOLTS),
+          Seconds.of(Constants.DriveConstants.SYSID_TIMEOUT_SECONDS)),
+      new SysIdRoutine.Mechanism(
+          volts -> driveIO.setVoltages(volts.in(Volts), volts.in(Volts)),
+          this::logSysId,
+          this));
+
   public TankDriveSubsystem() {
+    driveIO.registerSignals(signals);
+    gyro.registerSignals(signals);
+    if (odometryThread != null) {
+      odometryThread.start();
+    }
+
     if (Constants.AutoConstants.ENABLE_AUTO
         && Constants.AutoConstants.AUTO_MODE == Constants.AutoConstants.AutoMode.PATHPLANNER) {
       setupPathPlanner();
@@ -78,7 +125,9 @@ public class TankDriveSubsystem extends SubsystemBase {
 
     double leftMps = left * Constants.DriveConstants.MAX_WHEEL_SPEED_MPS;
     double rightMps = right * Constants.DriveConstants.MAX_WHEEL_SPEED_MPS;
-    driveWheelSpeeds(new DifferentialDriveWheelSpeeds(leftMps, rightMps));
+    commandedSpeeds.leftMetersPerSecond = leftMps;
+    commandedSpeeds.rightMetersPerSecond = rightMps;
+    driveWheelSpeeds(commandedSpeeds);
   }
 
   public void driveRobotRelative(ChassisSpeeds speeds) {
@@ -93,7 +142,7 @@ public class TankDriveSubsystem extends SubsystemBase {
     } else {
       double left = wheelSpeeds.leftMetersPerSecond / Constants.DriveConstants.MAX_WHEEL_SPEED_MPS;
       double right = wheelSpeeds.rightMetersPerSecond / Constants.DriveConstants.MAX_WHEEL_SPEED_MPS;
-      driveIO.setVoltages(left * 12.0, right * 12.0);
+      driveIO.setOpenLoop(left, right);
     }
   }
 
@@ -107,6 +156,10 @@ public class TankDriveSubsystem extends SubsystemBase {
 
   public void resetPose(Pose2d pose) {
     if (poseEstimator != null) {
+      if (odometryThread != null) {
+        // Apply queued samples first so none from before the reset land after it
+        drainOdometry();
+      }
       DifferentialDriveWheelPositions positions = getWheelPositions();
       poseEstimator.resetPosition(gyro.getRotation(), positions.leftMeters, positions.rightMeters, pose);
     }
@@ -128,13 +181,14 @@ public class TankDriveSubsystem extends SubsystemBase {
     return kinematics.toChassisSpeeds(getWheelSpeeds());
   }
 
+  /** This loop's wheel speeds. Updated in place every loop; copy it to keep it. */
   public DifferentialDriveWheelSpeeds getWheelSpeeds() {
-    return driveIO.getWheelSpeeds();
+    return inputs.wheelSpeeds;
   }
 
+  /** This loop's wheel positions. Updated in place every loop; copy it to keep it. */
   public DifferentialDriveWheelPositions getWheelPositions() {
-    double[] positions = driveIO.getWheelPositionsMeters();
-    return new DifferentialDriveWheelPositions(positions[0], positions[1]);
+    return inputs.wheelPositions;
   }
 
   public DifferentialDriveKinematics getKinematics() {
@@ -145,11 +199,40 @@ public class TankDriveSubsystem extends SubsystemBase {
     driveIO.setBrake(brake);
   }
 
+  public void registerFaults(FaultPoller poller) {
+    driveIO.registerFaults(poller);
+  }
+
+  public void registerCurrentBudget(CurrentBudgetSupervisor supervisor, CurrentBudgetSupervisor.Priority priority) {
+    driveIO.registerCurrentBudget(
+        supervisor,
+        priority,
+        Constants.PowerConstants.DRIVE_MIN_CURRENT_AMPS,
+        Constants.PowerConstants.DRIVE_MAX_CURRENT_AMPS);
+  }
+
   @Override
   public void periodic() {
+    if (inputsAllocation != null) {
+      inputsAllocation.start();
+    }
+    // Refresh every CAN status signal at once so all samples below line up in time
+    signals.refreshAll();
+    driveIO.updateInputs(inputs);
+    if (inputsAllocation != null) {
+      inputsAllocation.stop();
+    }
+
     if (poseEstimator != null) {
-      DifferentialDriveWheelPositions positions = getWheelPositions();
-      poseEstimator.update(gyro.getRotation(), positions.leftMeters, positions.rightMeters);
+      if (odometryThread != null) {
+        drainOdometry();
+      } else {
+        DifferentialDriveWheelPositions positions = getWheelPositions();
+        Rotation2d heading = gyro.getRotation();
+        // Stamp odometry with when the sensors measured it, so vision fuses against the right pose
+        double timestamp = (inputs.timestampSeconds + gyro.getTimestampSeconds()) / 2.0;
+        poseEstimator.updateWithTime(timestamp, heading, positions.leftMeters, positions.rightMeters);
+      }
       if (vision != null) {
         vision.addVisionMeasurements(poseEstimator);
       }
@@ -163,6 +246,53 @@ public class TankDriveSubsystem extends SubsystemBase {
       DifferentialDriveWheelSpeeds speeds = getWheelSpeeds();
       SmartDashboard.putNumber("Drive/LeftSpeed", speeds.leftMetersPerSecond);
       SmartDashboard.putNumber("Drive/RightSpeed", speeds.rightMetersPerSecond);
+      MotorInputs[] motorInputs = driveIO.getMotorInputs();
+      SmartDashboard.putNumber("Drive/LeftVolts", motorInputs[0].appliedVolts);
+      SmartDashboard.putNumber("Drive/LeftCurrent", motorInputs[0].currentAmps);
+      SmartDashboard.putNumber("Drive/LeftTempC", motorInputs[0].temperatureCelsius);
+      SmartDashboard.putNumber("Drive/LeftModelTempC", motorInputs[0].modelTemperatureCelsius);
+      SmartDashboard.putNumber("Drive/LeftCurrentLimit", motorInputs[0].currentLimitAmps);
+      SmartDashboard.putNumber("Drive/LeftStatorLimit", motorInputs[0].statorLimitAmps);
+      SmartDashboard.putNumber("Drive/RightVolts", motorInputs[1].appliedVolts);
+      SmartDashboard.putNumber("Drive/RightCurrent", motorInputs[1].currentAmps);
+      SmartDashboard.putNumber("Drive/RightTempC", motorInputs[1].temperatureCelsius);
+      SmartDashboard.putNumber("Drive/RightModelTempC", motorInputs[1].modelTemperatureCelsius);
+      SmartDashboard.putNumber("Drive/RightCurrentLimit", motorInputs[1].currentLimitAmps);
+      SmartDashboard.putNumber("Drive/RightStatorLimit", motorInputs[1].statorLimitAmps);
+      SmartDashboard.putNumber("Drive/CAN FramesSent", driveIO.getFramesSent());
+      SmartDashboard.putNumber("Drive/CAN FramesSuppressed", driveIO.getFramesSuppressed());
+      if (odometryThread != null) {
+        SmartDashboard.putNumber("Drive/Odometry DroppedSamples", odometryThread.getDroppedSamples());
+      }
+      // Compare with and without optimizeBusUtilization in motor-config.json
+      SmartDashboard.putNumber(
+          "Drive/CAN BusUtilization%", RobotController.getCANStatus().percentBusUtilization * 100.0);
+    }
+    if (inputsAllocation != null) {
+      SmartDashboard.putNumber("Drive/InputsAllocatedBytes", inputsAllocation.getLastBytes());
+      SmartDashboard.putNumber("Drive/InputsAllocatingLoops", inputsAllocation.getAllocatingSections());
+    }
+  }
+
+  private DifferentialDrivePoseEstimator createPoseEstimator() {
+    // Seed the inputs so the estimator starts from the real encoder positions
+    driveIO.updateInputs(inputs);
+    return new DifferentialDrivePoseEstimator(
+        kinematics,
+        gyro.getRotation(),
+        inputs.wheelPositions.leftMeters,
+        inputs.wheelPositions.rightMeters,
+        new Pose2d());
+  }
+
+  /** Feeds every sample the odometry thread queued since the last loop into the estimator. */
+  private void drainOdometry() {
+    while (odometryThread.poll(odometrySample)) {
+      poseEstimator.updateWithTime(
+          odometrySample.timestampSeconds,
+          Rotation2d.fromDegrees(odometrySample.yawDegrees),
+          odometrySample.positionsMeters[0],
+          odometrySample.positionsMeters[1]);
     }
   }
 
@@ -203,6 +333,46 @@ public class TankDriveSubsystem extends SubsystemBase {
     return run(() -> driveIO.setVoltages(leftVolts.getAsDouble(), rightVolts.getAsDouble()));
   }
 
+  /** Slow voltage ramp for kS and kV. Drives straight; give it room. */
+  public Command sysIdQuasistatic(SysIdRoutine.Direction direction) {
+    return sysIdRoutine.quasistatic(direction).withName("SysIdQuasistatic " + direction);
+  }
+
+  /** Voltage step for kA. Drives straight; give it room. */
+  public Command sysIdDynamic(SysIdRoutine.Direction direction) {
+    return sysIdRoutine.dynamic(direction).withName("SysIdDynamic " + direction);
+  }
+
+  /** All four SysId tests with a pause between each, to run from one held button. */
+  public Command sysIdDriveMotorCommand() {
+    double pause = Constants.DriveConstants.SYSID_PAUSE_SECONDS;
+    return Commands.sequence(
+            sysIdQuasistatic(SysIdRoutine.Direction.kForward),
+            Commands.waitSeconds(pause),
+            sysIdQuasistatic(SysIdRoutine.Direction.kReverse),
+            Commands.waitSeconds(pause),
+            sysIdDynamic(SysIdRoutine.Direction.kForward),
+            Commands.waitSeconds(pause),
+            sysIdDynamic(SysIdRoutine.Direction.kReverse))
+        .withName("SysIdDrive");
+  }
+
+  /** Writes this loop's applied volts, wheel position and speed per side to the DataLog. */
+  private void logSysId(SysIdRoutineLog log) {
+    MotorInputs[] motorInputs = driveIO.getMotorInputs();
+    logSysIdMotor(log, "drive-left", motorInputs[0].appliedVolts,
+        inputs.wheelPositions.leftMeters, inputs.wheelSpeeds.leftMetersPerSecond);
+    logSysIdMotor(log, "drive-right", motorInputs[1].appliedVolts,
+        inputs.wheelPositions.rightMeters, inputs.wheelSpeeds.rightMetersPerSecond);
+  }
+
+  private void logSysIdMotor(SysIdRoutineLog log, String name, double volts, double meters, double metersPerSecond) {
+    log.motor(name)
+        .voltage(sysIdVolts.mut_replace(volts, Volts))
+        .linearPosition(sysIdDistance.mut_replace(meters, Meters))
+        .linearVelocity(sysIdVelocity.mut_replace(metersPerSecond, MetersPerSecond));
+  }
+
   private GyroIO createGyro() {
     if (!Constants.DriveConstants.USE_GYRO) {
       return new GyroIONone();
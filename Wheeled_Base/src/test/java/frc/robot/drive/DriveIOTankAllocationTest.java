@@ -0,0 +1,56 @@
+package frc.robot.drive;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.wpilibj.simulation.SimHooks;
+import frc.robot.utils.AllocationMonitor;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that sampling the tank drive allocates nothing once warmed up, the property
+ * {@code Drive/InputsAllocatedBytes} shows on the robot.
+ *
+ * <p>Under HAL simulation {@link MotorFactory} builds {@link SimMotorWrapper}s, so this covers
+ * DriveIOTank, MotorGroup, VoltageCompensator, the inputs objects and the sim motor physics
+ * rather than the vendor reads. Sim time is paused and stepped one robot loop per call, so every
+ * sample integrates the motors under load instead of returning the cached state.
+ */
+class DriveIOTankAllocationTest {
+  private static final int WARMUP_ROUNDS = 20;
+  private static final int LOOPS_PER_ROUND = 1_000;
+  private static final double LOOP_SECONDS = 0.02;
+
+  @BeforeAll
+  static void setUp() {
+    assertTrue(HAL.initialize(500, 0));
+    SimHooks.pauseTiming();
+  }
+
+  @AfterAll
+  static void tearDown() {
+    SimHooks.resumeTiming();
+  }
+
+  @Test
+  void updateInputsAllocatesNothing() {
+    AllocationMonitor monitor = new AllocationMonitor();
+    assertTrue(monitor.isSupported(), "JVM does not track per-thread allocation");
+
+    DriveIOTank io = new DriveIOTank();
+    DriveIOInputs inputs = new DriveIOInputs();
+    io.setVoltages(6.0, -6.0);
+    Runnable loop = () -> {
+      SimHooks.stepTiming(LOOP_SECONDS);
+      io.updateInputs(inputs);
+    };
+    // Let the JIT compile the path, so only real allocations are left to count
+    for (int i = 0; i < WARMUP_ROUNDS; i++) {
+      monitor.measure(loop, LOOPS_PER_ROUND);
+    }
+    assertEquals(0, monitor.measure(loop, LOOPS_PER_ROUND), "bytes allocated by " + LOOPS_PER_ROUND + " updateInputs calls");
+  }
+}
@@ -2,399 +2,379 @@
 // Example packages: frc.robot.drive, frc.robot.motor
 package frc.robot.drive;
 
-import com.ctre.phoenix.motorcontrol.ControlMode;
-import com.ctre.phoenix.motorcontrol.NeutralMode;
-import com.ctre.phoenix.motorcontrol.can.WPI_TalonSRX;
-import com.ctre.phoenix6.configs.TalonFXConfiguration;
-import com.ctre.phoenix6.configs.TalonFXSConfiguration;
-import com.ctre.phoenix6.controls.PositionVoltage;
-import com.ctre.phoenix6.controls.VelocityVoltage;
-import com.ctre.phoenix6.controls.VoltageOut;
-import com.ctre.phoenix6.hardware.TalonFX;
-import com.ctre.phoenix6.hardware.TalonFXS;
-import com.ctre.phoenix6.signals.InvertedValue;
-import com.ctre.phoenix6.signals.NeutralModeValue;
-import com.revrobotics.PersistMode;
-import com.revrobotics.RelativeEncoder;
-import com.revrobotics.ResetMode;
-import com.revrobotics.spark.SparkBase;
-import com.revrobotics.spark.ClosedLoopSlot;
-import com.revrobotics.spark.config.SparkBaseConfig;
-import com.revrobotics.spark.config.SparkBaseConfig.IdleMode;
-import com.revrobotics.spark.SparkClosedLoopController;
-import com.revrobotics.spark.SparkFlex;
-import com.revrobotics.spark.SparkMax;
-import com.revrobotics.spark.config.SparkFlexConfig;
-import com.revrobotics.spark.config.SparkMaxConfig;
-import frc.robot.Constants.DriveConstants.MotorControllerType;
-import frc.robot.Constants.DriveConstants.MotorKind;
-
-public class CanMotorWrapper implements UniversalMotor {
-  private static final int TALON_SRX_CPR = 4096;
-
-  private final MotorControllerType controllerType;
-  private final MotorKind motorKind;
-  private final double gearRatio;
-  private final boolean useSensor;
-
-  private SparkBase spark;
-  private SparkClosedLoopController sparkClosedLoop;
-  private RelativeEncoder sparkEncoder;
-
-  private TalonFX talonFx;
-  private TalonFXS talonFxs;
-  private WPI_TalonSRX talonSrx;
-
-  private final VoltageOut talonVoltage = new VoltageOut(0.0);
-  private final VelocityVoltage talonVelocity = new VelocityVoltage(0.0);
-  private final PositionVoltage talonPosition = new PositionVoltage(0.0);
-
-  public CanMotorWrapper(MotorConfig config) {
-    controllerType = config.controllerType;
-    motorKind = config.motorKind;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Timer;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Shared base for the vendor-specific CAN motor classes ({@link SparkMotor},
+ * {@link TalonFxMotor}, {@link TalonFxsMotor}, {@link TalonSrxMotor}).
+ *
+ * <p>Each subclass holds only its own device and implements the raw vendor calls, so the
+ * hot paths are plain monomorphic calls instead of a switch on controller type. This class
+ * keeps the behaviour every CAN motor shares: sensorless fallbacks, input sampling and
+ * setpoint-change suppression. Use {@link MotorFactory#createMotor(MotorConfig)} to pick
+ * the right subclass.
+ *
+ * <p>Setpoint-change suppression: a setpoint within {@code setpointEpsilon} of the last one
+ * sent in the same control mode is not resent, except once every {@code keepaliveSeconds}
+ * so the controller never runs on a stale frame. Idle or steady-stick loops then cost no
+ * CAN traffic; {@link #getFramesSent()} and {@link #getFramesSuppressed()} show the saving.
+ *
+ * <p>Neutral mode is cached the same way: {@link #setBrake(boolean)} only reaches the device
+ * when the mode actually changes, so callers can re-assert it every disabled loop for free.
+ * Real changes are timed and a warning is reported if one takes long enough to hurt the loop.
+ *
+ * <p>Runtime supply current limits from {@link #setCurrentLimit(double)} are cached the same way
+ * and rounded to whole amps, so a supervisor can hand out limits every loop. With
+ * {@code thermalDerating} set, a {@link ThermalModel} updated from each input sample derates
+ * {@code currentLimitAmps} as the motor heats. The windings heat with stator current, so that
+ * limit goes out through {@link #applyStatorLimit(double)}, separately from the runtime limit
+ * and cached the same way.
+ *
+ * <p>Status signal rates: subclasses apply the {@code *UpdateHz} fields from {@link MotorConfig}
+ * during {@link #applyConfiguration()}. With {@code optimizeBusUtilization} set, any signal
+ * without an explicit rate gets the rate the drive actually needs, which is zero for position
+ * and velocity when the motor has no sensor. Fault status keeps a slow rate for
+ * {@link FaultPoller}. Everything else is switched off, except that a leader with hardware
+ * followers keeps the output frames they track at full rate (see {@link #hasFollowers()}).
+ */
+public abstract class CanMotorWrapper implements UniversalMotor {
+  private static final double DEFAULT_SETPOINT_EPSILON = 0.01;
+  private static final double DEFAULT_KEEPALIVE_SECONDS = 0.1;
+  /** A neutral-mode change slower than this is reported; the loop budget is 20 ms. */
+  private static final double NEUTRAL_MODE_WARN_MS = 2.0;
+
+  /** Returned by the {@code *RateHz()} helpers when the vendor default should be left alone. */
+  protected static final double RATE_UNCHANGED = -1.0;
+  // Rates used by optimizeBusUtilization for signals without an explicit rate
+  private static final double OPTIMIZED_FEEDBACK_HZ = 50.0;
+  private static final double OPTIMIZED_CURRENT_HZ = 10.0;
+  private static final double OPTIMIZED_TEMPERATURE_HZ = 4.0;
+  private static final double OPTIMIZED_FAULT_HZ = 4.0;
+  // Thermal derating defaults; controllers cut out at around 100-110 C
+  private static final double DEFAULT_DERATE_START_CELSIUS = 70.0;
+  private static final double DEFAULT_THERMAL_LIMIT_CELSIUS = 95.0;
+  /** Base limit the thermal model derates when the config sets none. */
+  private static final double DEFAULT_THERMAL_BASE_AMPS = 60.0;
+
+  private enum ControlKind {
+    NONE,
+    VOLTAGE,
+    VELOCITY,
+    POSITION
+  }
+
+  protected final MotorConfig config;
+  protected final double gearRatio;
+  protected final boolean useSensor;
+
+  private final double setpointEpsilon;
+  private final double keepaliveSeconds;
+  private ControlKind lastControl = ControlKind.NONE;
+  private double lastSetpoint = 0.0;
+  private double lastFeedforwardVolts = 0.0;
+  private double lastSendSeconds = 0.0;
+  private long framesSent = 0;
+  private long framesSuppressed = 0;
+  private boolean brakeEnabled;
+  private double lastNeutralModeChangeMs = 0.0;
+  private long currentLimitAmps = -1;
+  private long statorLimitAmps = -1;
+  private final double thermalBaseAmps;
+  private final ThermalModel thermalModel;
+  private boolean hasFollowers = false;
+
+  protected CanMotorWrapper(MotorConfig config) {
+    this.config = config;
     gearRatio = config.gearRatio;
     useSensor = config.useSensor;
+    setpointEpsilon = config.setpointEpsilon != null ? config.setpointEpsilon : DEFAULT_SETPOINT_EPSILON;
+    keepaliveSeconds = config.keepaliveSeconds != null ? config.keepaliveSeconds : DEFAULT_KEEPALIVE_SECONDS;
+    // applyConfiguration() pushes this mode, so the cache starts in step with the device
+    brakeEnabled = config.brakeMode == null || config.brakeMode;
+    thermalBaseAmps = config.currentLimitAmps != null ? config.currentLimitAmps : DEFAULT_THERMAL_BASE_AMPS;
+    thermalModel = config.thermalDerating != null && config.thermalDerating
+        ? new ThermalModel(
+            config.thermalDerateStartCelsius != null ? config.thermalDerateStartCelsius : DEFAULT_DERATE_START_CELSIUS,
+            config.thermalLimitCelsius != null ? config.thermalLimitCelsius : DEFAULT_THERMAL_LIMIT_CELSIUS)
+        : null;
+  }
 
-    switch (controllerType) {
-      case SPARK_MAX:
-        spark = new SparkMax(config.id, sparkMotorType());
-        configureSpark(new SparkMaxConfig(), config);
-        break;
-      case SPARK_FLEX:
-        spark = new SparkFlex(config.id, sparkMotorType());
-        configureSpark(new SparkFlexConfig(), config);
-        break;
-      case TALON_FX:
-        talonFx = new TalonFX(config.id);
-        configureTalonFx(config);
-        break;
-      case TALON_FXS:
-        talonFxs = new TalonFXS(config.id);
-        configureTalonFxs(config);
-        break;
-      case TALON_SRX:
-        talonSrx = new WPI_TalonSRX(config.id);
-        talonSrx.setInverted(config.inverted);
-
-        // Apply brake mode if specified, otherwise default to brake
-        NeutralMode srxNeutralMode = NeutralMode.Brake;
-        if (config.brakeMode != null) {
-          srxNeutralMode = config.brakeMode ? NeutralMode.Brake : NeutralMode.Coast;
-        }
-        talonSrx.setNeutralMode(srxNeutralMode);
-
-        // Apply current limit if specified
-        if (config.currentLimitAmps != null) {
-          talonSrx.configContinuousCurrentLimit(config.currentLimitAmps);
-          talonSrx.enableCurrentLimit(true);
-        }
-
-        // Apply PID gains if specified (slot 0)
-        if (config.kP != null) {
-          talonSrx.config_kP(0, config.kP);
-        }
-        if (config.kI != null) {
-          talonSrx.config_kI(0, config.kI);
-        }
-        if (config.kD != null) {
-          talonSrx.config_kD(0, config.kD);
-        }
-        if (config.kF != null) {
-          talonSrx.config_kF(0, config.kF);
-        }
-        break;
-      default:
-        throw new IllegalArgumentException("Unsupported CAN motor type: " + controllerType);
-    }
+  /** Neutral mode the device is currently set to (brake unless the config asks for coast). */
+  protected boolean isBrakeEnabled() {
+    return brakeEnabled;
   }
 
-  private SparkBase.MotorType sparkMotorType() {
-    return motorKind == MotorKind.BRUSHED
-        ? SparkBase.MotorType.kBrushed
-        : SparkBase.MotorType.kBrushless;
+  protected boolean optimizeBusUtilization() {
+    return config.optimizeBusUtilization != null && config.optimizeBusUtilization;
   }
 
-  private void configureSpark(SparkBaseConfig baseConfig, MotorConfig config) {
-    sparkClosedLoop = spark.getClosedLoopController();
-    sparkEncoder = spark.getEncoder();
+  protected double positionRateHz() {
+    return rateHz(config.positionUpdateHz, useSensor ? OPTIMIZED_FEEDBACK_HZ : 0.0);
+  }
 
-    baseConfig.inverted(config.inverted);
+  protected double velocityRateHz() {
+    return rateHz(config.velocityUpdateHz, useSensor ? OPTIMIZED_FEEDBACK_HZ : 0.0);
+  }
 
-    // Apply brake mode if specified, otherwise default to brake
-    IdleMode idleMode = IdleMode.kBrake;
-    if (config.brakeMode != null) {
-      idleMode = config.brakeMode ? IdleMode.kBrake : IdleMode.kCoast;
-    }
-    baseConfig.idleMode(idleMode);
+  protected double currentRateHz() {
+    return rateHz(config.currentUpdateHz, OPTIMIZED_CURRENT_HZ);
+  }
 
-    // Apply current limit if specified
-    if (config.currentLimitAmps != null) {
-      baseConfig.smartCurrentLimit(config.currentLimitAmps);
-    }
+  protected double temperatureRateHz() {
+    return rateHz(config.temperatureUpdateHz, OPTIMIZED_TEMPERATURE_HZ);
+  }
 
-    baseConfig.encoder.positionConversionFactor(1.0 / gearRatio);
-    baseConfig.encoder.velocityConversionFactor(1.0 / gearRatio / 60.0);
+  protected double faultRateHz() {
+    return optimizeBusUtilization() ? OPTIMIZED_FAULT_HZ : RATE_UNCHANGED;
+  }
 
-    // Apply PID gains if specified
-    if (config.kP != null) {
-      baseConfig.closedLoop.p(config.kP, ClosedLoopSlot.kSlot0);
-    }
-    if (config.kI != null) {
-      baseConfig.closedLoop.i(config.kI, ClosedLoopSlot.kSlot0);
-    }
-    if (config.kD != null) {
-      baseConfig.closedLoop.d(config.kD, ClosedLoopSlot.kSlot0);
+  private double rateHz(Double configuredHz, double optimizedHz) {
+    if (configuredHz != null) {
+      return configuredHz;
     }
-    if (config.kF != null) {
-      baseConfig.closedLoop.velocityFF(config.kF, ClosedLoopSlot.kSlot0);
-    }
-
-    spark.configure(baseConfig, ResetMode.kResetSafeParameters, PersistMode.kNoPersistParameters);
+    return optimizeBusUtilization() ? optimizedHz : RATE_UNCHANGED;
   }
 
-  private void configureTalonFx(MotorConfig config) {
-    TalonFXConfiguration fxConfig = new TalonFXConfiguration();
-    fxConfig.MotorOutput.Inverted =
-        config.inverted ? InvertedValue.Clockwise_Positive : InvertedValue.CounterClockwise_Positive;
-
-    // Apply brake mode if specified, otherwise default to brake
-    NeutralModeValue neutralMode = NeutralModeValue.Brake;
-    if (config.brakeMode != null) {
-      neutralMode = config.brakeMode ? NeutralModeValue.Brake : NeutralModeValue.Coast;
-    }
-    fxConfig.MotorOutput.NeutralMode = neutralMode;
+  protected abstract void applyVoltage(double volts);
+
+  /** @param feedforwardVolts added to the device's own velocity loop output */
+  protected abstract void applyVelocity(double rps, double feedforwardVolts);
+
+  protected abstract void applyPosition(double rotations);
+
+  protected abstract double readVelocityRps();
+
+  protected abstract double readPositionRotations();
+
+  protected abstract void applyStop();
+
+  /**
+   * Sends only the neutral-mode setting to the device. Must not block on a CAN round trip;
+   * called only when the mode actually changes.
+   */
+  protected abstract void applyNeutralMode(boolean brake);
+
+  /**
+   * Sends only the runtime supply (battery-side) current limit from
+   * {@link #setCurrentLimit(double)}. Controllers without a supply limit cap output current
+   * at the same number instead, which caps supply current at least as tightly. Must not block on
+   * a CAN round trip; called only when the whole-amp limit actually changes.
+   */
+  protected abstract void applySupplyLimit(double amps);
+
+  /**
+   * Sends only the thermally derated stator (output) current limit. Must not block on a CAN
+   * round trip; called only when the whole-amp limit actually changes, and only with
+   * {@code thermalDerating} set.
+   */
+  protected abstract void applyStatorLimit(double amps);
+
+  /**
+   * Puts the device in native follower mode. Only leaders from the same vendor family can be
+   * followed; return false for any other leader.
+   *
+   * @param opposeLeader spin opposite to the leader's output
+   */
+  protected abstract boolean applyFollow(CanMotorWrapper leader, boolean opposeLeader);
+
+  /**
+   * FPGA time at which the device measured the current position sample. Defaults to now;
+   * controllers that timestamp their status frames override it.
+   */
+  protected double readTimestampSeconds() {
+    return Timer.getFPGATimestamp();
+  }
 
-    // Apply current limit if specified
-    if (config.currentLimitAmps != null) {
-      fxConfig.CurrentLimits.StatorCurrentLimit = config.currentLimitAmps;
-      fxConfig.CurrentLimits.StatorCurrentLimitEnable = true;
-    }
+  /**
+   * Position reader for the odometry thread. Spark and Talon SRX position reads come from
+   * cached status frames and are safe off the main thread; Phoenix 6 motors override this.
+   */
+  protected DoubleSupplier odometryPositionSource(SignalRefreshGroup odometrySignals) {
+    return this::readPositionRotations;
+  }
 
-    fxConfig.Feedback.SensorToMechanismRatio = gearRatio;
+  /** Fills applied volts, current and temperature from the device. */
+  protected abstract void readElectricalInputs(MotorInputs inputs);
 
-    // Apply PID gains if specified
-    if (config.kP != null) {
-      fxConfig.Slot0.kP = config.kP;
-    }
-    if (config.kI != null) {
-      fxConfig.Slot0.kI = config.kI;
-    }
-    if (config.kD != null) {
-      fxConfig.Slot0.kD = config.kD;
-    }
-    if (config.kF != null) {
-      fxConfig.Slot0.kV = config.kF;
+  @Override
+  public final void setVoltage(double volts) {
+    if (shouldSend(ControlKind.VOLTAGE, volts)) {
+      applyVoltage(volts);
     }
-
-    talonFx.getConfigurator().apply(fxConfig);
   }
 
-  private void configureTalonFxs(MotorConfig config) {
-    TalonFXSConfiguration fxsConfig = new TalonFXSConfiguration();
-    fxsConfig.MotorOutput.Inverted =
-        config.inverted ? InvertedValue.Clockwise_Positive : InvertedValue.CounterClockwise_Positive;
+  @Override
+  public final void setVelocityRps(double rps) {
+    setVelocityRps(rps, 0.0);
+  }
 
-    // Apply brake mode if specified, otherwise default to brake
-    NeutralModeValue neutralMode = NeutralModeValue.Brake;
-    if (config.brakeMode != null) {
-      neutralMode = config.brakeMode ? NeutralModeValue.Brake : NeutralModeValue.Coast;
+  @Override
+  public final void setVelocityRps(double rps, double feedforwardVolts) {
+    if (!useSensor) {
+      setVoltage(12.0 * Math.signum(rps));
+      return;
     }
-    fxsConfig.MotorOutput.NeutralMode = neutralMode;
-
-    // Apply current limit if specified
-    if (config.currentLimitAmps != null) {
-      fxsConfig.CurrentLimits.StatorCurrentLimit = config.currentLimitAmps;
-      fxsConfig.CurrentLimits.StatorCurrentLimitEnable = true;
+    if (shouldSend(ControlKind.VELOCITY, rps, feedforwardVolts)) {
+      applyVelocity(rps, feedforwardVolts);
     }
+  }
 
-    fxsConfig.ExternalFeedback.SensorToMechanismRatio = gearRatio;
-
-    // Apply PID gains if specified
-    if (config.kP != null) {
-      fxsConfig.Slot0.kP = config.kP;
-    }
-    if (config.kI != null) {
-      fxsConfig.Slot0.kI = config.kI;
-    }
-    if (config.kD != null) {
-      fxsConfig.Slot0.kD = config.kD;
+  @Override
+  public final void setPositionRotations(double rotations) {
+    if (!useSensor) {
+      return;
     }
-    if (config.kF != null) {
-      fxsConfig.Slot0.kV = config.kF;
+    if (shouldSend(ControlKind.POSITION, rotations)) {
+      applyPosition(rotations);
     }
-
-    talonFxs.getConfigurator().apply(fxsConfig);
   }
 
   @Override
-  public void setVoltage(double volts) {
-    switch (controllerType) {
-      case SPARK_MAX:
-      case SPARK_FLEX:
-        spark.setVoltage(volts);
-        break;
-      case TALON_FX:
-        talonFx.setControl(talonVoltage.withOutput(volts));
-        break;
-      case TALON_FXS:
-        talonFxs.setControl(talonVoltage.withOutput(volts));
-        break;
-      case TALON_SRX:
-        talonSrx.setVoltage(volts);
-        break;
-      default:
-        break;
-    }
+  public final void stop() {
+    // Always send, and forget the last setpoint so the next command goes out immediately
+    lastControl = ControlKind.NONE;
+    framesSent++;
+    applyStop();
   }
 
   @Override
-  public void setVelocityRps(double rps) {
-    if (!useSensor) {
-      setVoltage(12.0 * Math.signum(rps));
+  public final void setBrake(boolean brake) {
+    if (brake == brakeEnabled) {
       return;
     }
-    switch (controllerType) {
-      case SPARK_MAX:
-      case SPARK_FLEX:
-        sparkClosedLoop.setSetpoint(rps, SparkBase.ControlType.kVelocity, ClosedLoopSlot.kSlot0);
-        break;
-      case TALON_FX:
-        talonFx.setControl(talonVelocity.withVelocity(rps));
-        break;
-      case TALON_FXS:
-        talonFxs.setControl(talonVelocity.withVelocity(rps));
-        break;
-      case TALON_SRX:
-        talonSrx.set(ControlMode.Velocity, rpsToTalonSrxUnits(rps));
-        break;
-      default:
-        break;
+    long start = System.nanoTime();
+    applyNeutralMode(brake);
+    brakeEnabled = brake;
+    lastNeutralModeChangeMs = (System.nanoTime() - start) / 1e6;
+    if (lastNeutralModeChangeMs > NEUTRAL_MODE_WARN_MS) {
+      DriverStation.reportWarning(
+          String.format("Neutral mode change on CAN %d took %.1f ms", config.id, lastNeutralModeChangeMs),
+          false);
     }
   }
 
   @Override
-  public void setPositionRotations(double rotations) {
-    if (!useSensor) {
+  public final void setCurrentLimit(double amps) {
+    sendCurrentLimit(amps);
+  }
+
+  private void sendCurrentLimit(double amps) {
+    long rounded = Math.round(amps);
+    if (rounded == currentLimitAmps) {
       return;
     }
-    switch (controllerType) {
-      case SPARK_MAX:
-      case SPARK_FLEX:
-        sparkClosedLoop.setSetpoint(rotations, SparkBase.ControlType.kPosition, ClosedLoopSlot.kSlot0);
-        break;
-      case TALON_FX:
-        talonFx.setControl(talonPosition.withPosition(rotations));
-        break;
-      case TALON_FXS:
-        talonFxs.setControl(talonPosition.withPosition(rotations));
-        break;
-      case TALON_SRX:
-        talonSrx.set(ControlMode.Position, rotationsToTalonSrxUnits(rotations));
-        break;
-      default:
-        break;
+    currentLimitAmps = rounded;
+    applySupplyLimit(rounded);
+  }
+
+  private void sendStatorLimit(double amps) {
+    long rounded = Math.round(amps);
+    if (rounded == statorLimitAmps) {
+      return;
     }
+    statorLimitAmps = rounded;
+    applyStatorLimit(rounded);
   }
 
   @Override
-  public double getVelocityRps() {
-    if (!useSensor) {
-      return 0.0;
-    }
-    switch (controllerType) {
-      case SPARK_MAX:
-      case SPARK_FLEX:
-        return sparkEncoder != null ? sparkEncoder.getVelocity() : 0.0;
-      case TALON_FX:
-        return talonFx.getVelocity().getValueAsDouble();
-      case TALON_FXS:
-        return talonFxs.getVelocity().getValueAsDouble();
-      case TALON_SRX:
-        return talonSrx.getSelectedSensorVelocity() / TALON_SRX_CPR * 10.0 / gearRatio;
-      default:
-        return 0.0;
-    }
+  public final DoubleSupplier createOdometryPositionSource(SignalRefreshGroup odometrySignals) {
+    return useSensor ? odometryPositionSource(odometrySignals) : () -> 0.0;
   }
 
   @Override
-  public double getPositionRotations() {
-    if (!useSensor) {
-      return 0.0;
+  public final boolean follow(UniversalMotor leader) {
+    if (!(leader instanceof CanMotorWrapper)) {
+      return false;
     }
-    switch (controllerType) {
-      case SPARK_MAX:
-      case SPARK_FLEX:
-        return sparkEncoder != null ? sparkEncoder.getPosition() : 0.0;
-      case TALON_FX:
-        return talonFx.getPosition().getValueAsDouble();
-      case TALON_FXS:
-        return talonFxs.getPosition().getValueAsDouble();
-      case TALON_SRX:
-        return talonSrx.getSelectedSensorPosition() / TALON_SRX_CPR / gearRatio;
-      default:
-        return 0.0;
+    CanMotorWrapper canLeader = (CanMotorWrapper) leader;
+    // Followers ignore their own invert, so encode the relative direction instead
+    if (!applyFollow(canLeader, config.inverted != canLeader.config.inverted)) {
+      return false;
     }
+    if (!canLeader.hasFollowers) {
+      canLeader.hasFollowers = true;
+      canLeader.applyFollowerFrames();
+    }
+    return true;
+  }
+
+  /**
+   * True once another motor follows this one in hardware. Followers copy the leader's output
+   * from its status frames, so those frames must not be slowed by {@code optimizeBusUtilization};
+   * a 100 ms frame would leave the follower 100 ms behind, fighting the leader in the gearbox.
+   */
+  protected boolean hasFollowers() {
+    return hasFollowers;
+  }
+
+  /**
+   * Puts the output frames followers track back to full rate. Called once, when the first
+   * follower attaches, which is after boot configuration; {@link #applyConfiguration()} also
+   * checks {@link #hasFollowers()} if it runs again. Controllers that never slow those frames
+   * need not override it.
+   */
+  protected void applyFollowerFrames() {}
+
+  /** Duration of the last neutral-mode change that reached the device, in milliseconds. */
+  public double getLastNeutralModeChangeMs() {
+    return lastNeutralModeChangeMs;
   }
 
   @Override
-  public void setBrake(boolean brake) {
-    switch (controllerType) {
-      case SPARK_MAX:
-      case SPARK_FLEX:
-        applySparkIdleMode(brake);
-        break;
-      case TALON_FX:
-        TalonFXConfiguration fxConfig = new TalonFXConfiguration();
-        fxConfig.MotorOutput.NeutralMode = brake ? NeutralModeValue.Brake : NeutralModeValue.Coast;
-        talonFx.getConfigurator().apply(fxConfig);
-        break;
-      case TALON_FXS:
-        TalonFXSConfiguration fxsConfig = new TalonFXSConfiguration();
-        fxsConfig.MotorOutput.NeutralMode = brake ? NeutralModeValue.Brake : NeutralModeValue.Coast;
-        talonFxs.getConfigurator().apply(fxsConfig);
-        break;
-      case TALON_SRX:
-        talonSrx.setNeutralMode(brake ? NeutralMode.Brake : NeutralMode.Coast);
-        break;
-      default:
-        break;
-    }
+  public final double getVelocityRps() {
+    return useSensor ? readVelocityRps() : 0.0;
   }
 
   @Override
-  public void stop() {
-    switch (controllerType) {
-      case SPARK_MAX:
-      case SPARK_FLEX:
-        spark.stopMotor();
-        break;
-      case TALON_FX:
-        talonFx.stopMotor();
-        break;
-      case TALON_FXS:
-        talonFxs.stopMotor();
-        break;
-      case TALON_SRX:
-        talonSrx.stopMotor();
-        break;
-      default:
-        break;
+  public final double getPositionRotations() {
+    return useSensor ? readPositionRotations() : 0.0;
+  }
+
+  @Override
+  public void updateInputs(MotorInputs inputs) {
+    inputs.positionRotations = getPositionRotations();
+    inputs.timestampSeconds = readTimestampSeconds();
+    inputs.velocityRps = getVelocityRps();
+    readElectricalInputs(inputs);
+    if (thermalModel != null) {
+      thermalModel.update(inputs.currentAmps, inputs.temperatureCelsius);
+      sendStatorLimit(thermalModel.derate(thermalBaseAmps));
+      inputs.modelTemperatureCelsius = thermalModel.getTemperatureCelsius();
     }
+    inputs.currentLimitAmps = Math.max(0, currentLimitAmps);
+    inputs.statorLimitAmps = Math.max(0, statorLimitAmps);
+  }
+
+  @Override
+  public long getFramesSent() {
+    return framesSent;
   }
 
-  private double rpsToTalonSrxUnits(double rps) {
-    return (rps * gearRatio) * (TALON_SRX_CPR / 10.0);
+  @Override
+  public long getFramesSuppressed() {
+    return framesSuppressed;
   }
 
-  private double rotationsToTalonSrxUnits(double rotations) {
-    return rotations * gearRatio * TALON_SRX_CPR;
+  private boolean shouldSend(ControlKind control, double setpoint) {
+    return shouldSend(control, setpoint, 0.0);
   }
 
-  private void applySparkIdleMode(boolean brake) {
-    SparkBaseConfig config = controllerType == MotorControllerType.SPARK_FLEX
-        ? new SparkFlexConfig()
-        : new SparkMaxConfig();
-    config.idleMode(brake ? IdleMode.kBrake : IdleMode.kCoast);
-    spark.configure(config, ResetMode.kNoResetSafeParameters, PersistMode.kNoPersistParameters);
+  private boolean shouldSend(ControlKind control, double setpoint, double feedforwardVolts) {
+    double now = Timer.getFPGATimestamp();
+    if (control == lastControl
+        && Math.abs(setpoint - lastSetpoint) <= setpointEpsilon
+        && Math.abs(feedforwardVolts - lastFeedforwardVolts) <= setpointEpsilon
+        && now - lastSendSeconds < keepaliveSeconds) {
+      framesSuppressed++;
+      return false;
+    }
+    lastControl = control;
+    lastSetpoint = setpoint;
+    lastFeedforwardVolts = feedforwardVolts;
+    lastSendSeconds = now;
+    framesSent++;
+    return true;
   }
 }
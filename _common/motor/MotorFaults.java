@@ -0,0 +1,19 @@
+// COPY THIS FILE: Update package declaration when copying to your project
+// Example packages: frc.robot.drive, frc.robot.motor
+package frc.robot.drive;
+
+/**
+ * Snapshot of a motor controller's health, filled by
+ * {@link UniversalMotor#readFaults(MotorFaults)}.
+ *
+ * <p>Like {@link MotorInputs}, allocate one and reuse it. The fault words are the vendor's own
+ * bit fields, so they are only meaningful next to the controller type; zero always means
+ * healthy. Reads come from status frames the controller already sends, so filling this costs no
+ * CAN round trip.
+ */
+public final class MotorFaults {
+  public boolean connected = true;     // False when the device's status frames stopped arriving
+  public long activeFaults = 0;        // Vendor fault bits active right now
+  public long stickyFaults = 0;        // Vendor fault bits latched since boot or the last clear
+  public boolean resetOccurred = false; // The controller rebooted since the previous read
+}
@@ -2,14 +2,34 @@
 // Example packages: frc.robot.drive, frc.robot.motor
 package frc.robot.drive;
 
+import edu.wpi.first.math.controller.PIDController;
+import edu.wpi.first.wpilibj.CounterBase.EncodingType;
+import edu.wpi.first.wpilibj.Encoder;
+import edu.wpi.first.wpilibj.RobotController;
+import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj.motorcontrol.MotorController;
 import edu.wpi.first.wpilibj.motorcontrol.PWMSparkMax;
 import edu.wpi.first.wpilibj.motorcontrol.PWMTalonSRX;
 import edu.wpi.first.wpilibj.motorcontrol.PWMVictorSPX;
 import frc.robot.Constants.DriveConstants.MotorControllerType;
 
+/**
+ * PWM motor controller, optionally with a quadrature encoder on two roboRIO DIO channels.
+ *
+ * <p>With {@code useSensor} and both {@code encoderChannelA}/{@code encoderChannelB} set, the
+ * FPGA counts edges and computes rate from the averaged period between them, so position and
+ * velocity cost no CPU and no CAN traffic. Velocity and position requests then run a RIO-side
+ * loop using the config's {@code kF} (volts per rps) and {@code kP}/{@code kI}/{@code kD}.
+ * Without an encoder, position and velocity read zero and velocity requests are open loop.
+ */
 public class PwmMotorWrapper implements UniversalMotor {
+  private static final int DEFAULT_SAMPLES_TO_AVERAGE = 4;
+
   private final MotorController controller;
+  private final Encoder encoder;
+  private final PIDController velocityController;
+  private final PIDController positionController;
+  private final double velocityFeedforward;
 
   public PwmMotorWrapper(MotorConfig config) {
     MotorControllerType type = config.controllerType;
@@ -27,6 +47,45 @@ public class PwmMotorWrapper implements UniversalMotor {
         throw new IllegalArgumentException("Unsupported PWM motor type: " + type);
     }
     controller.setInverted(config.inverted);
+
+    encoder = config.useSensor && config.encoderChannelA != null && config.encoderChannelB != null
+        ? createEncoder(config)
+        : null;
+    double kP = config.kP != null ? config.kP : 0.0;
+    double kI = config.kI != null ? config.kI : 0.0;
+    double kD = config.kD != null ? config.kD : 0.0;
+    velocityController = new PIDController(kP, kI, kD);
+    positionController = new PIDController(kP, kI, kD);
+    velocityFeedforward = config.kF != null ? config.kF : 0.0;
+  }
+
+  private static Encoder createEncoder(MotorConfig config) {
+    // No sensible default: a guessed CPR would scale odometry and velocity by an unknown factor
+    if (config.encoderCountsPerRotation == null || config.encoderCountsPerRotation <= 0.0) {
+      throw new IllegalArgumentException(
+          "PWM motor " + config.id + " has encoder channels but no positive encoderCountsPerRotation");
+    }
+    Encoder encoder = new Encoder(
+        config.encoderChannelA, config.encoderChannelB, config.inverted, encodingType(config.encoderDecoding));
+    // Distance is in mechanism rotations, so rate comes out in rps
+    encoder.setDistancePerPulse(1.0 / config.encoderCountsPerRotation);
+    encoder.setSamplesToAverage(
+        config.encoderSamplesToAverage != null ? config.encoderSamplesToAverage : DEFAULT_SAMPLES_TO_AVERAGE);
+    return encoder;
+  }
+
+  private static EncodingType encodingType(Integer decoding) {
+    if (decoding == null) {
+      return EncodingType.k4X;
+    }
+    switch (decoding) {
+      case 1:
+        return EncodingType.k1X;
+      case 2:
+        return EncodingType.k2X;
+      default:
+        return EncodingType.k4X;
+    }
   }
 
   @Override
@@ -36,22 +95,48 @@ public class PwmMotorWrapper implements UniversalMotor {
 
   @Override
   public void setVelocityRps(double rps) {
-    controller.set(Math.signum(rps));
+    setVelocityRps(rps, 0.0);
+  }
+
+  @Override
+  public void setVelocityRps(double rps, double feedforwardVolts) {
+    if (encoder == null) {
+      controller.set(Math.signum(rps));
+      return;
+    }
+    double feedback = velocityController.calculate(encoder.getRate(), rps);
+    controller.setVoltage(velocityFeedforward * rps + feedforwardVolts + feedback);
   }
 
   @Override
   public void setPositionRotations(double rotations) {
-    // No sensor feedback for PWM controllers by default.
+    if (encoder == null) {
+      // No sensor feedback without an encoder.
+      return;
+    }
+    controller.setVoltage(positionController.calculate(encoder.getDistance(), rotations));
   }
 
   @Override
   public double getVelocityRps() {
-    return 0.0;
+    return encoder != null ? encoder.getRate() : 0.0;
   }
 
   @Override
   public double getPositionRotations() {
-    return 0.0;
+    return encoder != null ? encoder.getDistance() : 0.0;
+  }
+
+  @Override
+  public void updateInputs(MotorInputs inputs) {
+    // Applied volts are the commanded output; PWM controllers report nothing back.
+    inputs.timestampSeconds = Timer.getFPGATimestamp();
+    inputs.positionRotations = getPositionRotations();
+    inputs.velocityRps = getVelocityRps();
+    inputs.appliedVolts = controller.get() * RobotController.getBatteryVoltage();
+    inputs.currentAmps = 0.0;
+    inputs.supplyCurrentAmps = 0.0;
+    inputs.temperatureCelsius = 0.0;
   }
 
   @Override
@@ -62,5 +147,8 @@ public class PwmMotorWrapper implements UniversalMotor {
   @Override
   public void stop() {
     controller.stopMotor();
+    // Don't carry integral windup into the next request
+    velocityController.reset();
+    positionController.reset();
   }
 }
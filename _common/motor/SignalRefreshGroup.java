@@ -0,0 +1,62 @@
+// COPY THIS FILE: Update package declaration when copying to your project
+// Example packages: frc.robot.drive, frc.robot.motor
+package frc.robot.drive;
+
+import com.ctre.phoenix6.BaseStatusSignal;
+import com.ctre.phoenix6.Utils;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects the Phoenix 6 status signals of every device in a subsystem so they can be
+ * refreshed together with a single {@link BaseStatusSignal#refreshAll} call per loop.
+ *
+ * <p>Devices register their signals once at construction. The owning subsystem calls
+ * {@link #refreshAll()} at the top of {@code periodic()}, after which the device getters
+ * return the cached, time-aligned values without any further CAN/JNI reads.
+ */
+public class SignalRefreshGroup {
+  private final List<BaseStatusSignal> registered = new ArrayList<>();
+  private BaseStatusSignal[] signals = new BaseStatusSignal[0];
+
+  public void register(BaseStatusSignal... newSignals) {
+    for (BaseStatusSignal signal : newSignals) {
+      if (signal != null && !registered.contains(signal)) {
+        registered.add(signal);
+      }
+    }
+    signals = registered.toArray(new BaseStatusSignal[0]);
+  }
+
+  public void refreshAll() {
+    if (signals.length > 0) {
+      BaseStatusSignal.refreshAll(signals);
+    }
+  }
+
+  /** Sets the update rate of every registered signal, e.g. to feed a faster odometry thread. */
+  public void setUpdateFrequency(double hz) {
+    if (signals.length > 0) {
+      BaseStatusSignal.setUpdateFrequencyForAll(hz, signals);
+    }
+  }
+
+  /**
+   * Mean FPGA time at which the registered signals were measured on their devices, as of the
+   * last {@link #refreshAll()}. NaN when nothing is registered.
+   */
+  public double getTimestampSeconds() {
+    if (signals.length == 0) {
+      return Double.NaN;
+    }
+    double sum = 0.0;
+    for (BaseStatusSignal signal : signals) {
+      sum += Utils.currentTimeToFPGATime(signal.getTimestamp().getTime());
+    }
+    return sum / signals.length;
+  }
+
+  public int size() {
+    return signals.length;
+  }
+}
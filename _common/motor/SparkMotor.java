@@ -0,0 +1,256 @@
+// COPY THIS FILE: Update package declaration when copying to your project
+// Example packages: frc.robot.drive, frc.robot.motor
+package frc.robot.drive;
+
+import com.revrobotics.PersistMode;
+import com.revrobotics.REVLibError;
+import com.revrobotics.RelativeEncoder;
+import com.revrobotics.ResetMode;
+import com.revrobotics.spark.ClosedLoopSlot;
+import com.revrobotics.spark.SparkBase;
+import com.revrobotics.spark.SparkClosedLoopController;
+import com.revrobotics.spark.SparkClosedLoopController.ArbFFUnits;
+import com.revrobotics.spark.SparkFlex;
+import com.revrobotics.spark.SparkMax;
+import com.revrobotics.spark.config.SparkBaseConfig;
+import com.revrobotics.spark.config.SparkBaseConfig.IdleMode;
+import com.revrobotics.spark.config.SparkFlexConfig;
+import com.revrobotics.spark.config.SparkMaxConfig;
+import frc.robot.Constants.DriveConstants.MotorControllerType;
+import frc.robot.Constants.DriveConstants.MotorKind;
+
+/** REV Spark MAX / Spark Flex. */
+public final class SparkMotor extends CanMotorWrapper {
+  // Sparks can't switch a signal fully off, so "off" becomes the slowest useful period
+  private static final int SLOWEST_SIGNAL_PERIOD_MS = 1000;
+  // Low-latency velocity filter presets. REV's defaults (hall 32 ms x 8, quadrature 100 ms x 64)
+  // put velocity roughly 100 ms behind the wheel.
+  private static final int HALL_MEASUREMENT_PERIOD_MS = 16;
+  private static final int QUADRATURE_MEASUREMENT_PERIOD_MS = 10;
+  private static final int LOW_LATENCY_AVERAGE_DEPTH = 2;
+  /** REV's default applied-output period, which followers track. */
+  private static final int FOLLOWER_OUTPUT_PERIOD_MS = 10;
+
+  private final SparkBase spark;
+  private final SparkClosedLoopController closedLoop;
+  private final RelativeEncoder encoder;
+  // Reused for neutral-mode changes; holds nothing but the idle mode
+  private final SparkBaseConfig idleConfig;
+  // Same for runtime current-limit changes
+  private final SparkBaseConfig currentLimitConfig;
+  // The smart current limit is the Spark's only runtime limit, so it carries the lower of these
+  private double budgetLimitAmps = Double.MAX_VALUE;
+  private double thermalLimitAmps = Double.MAX_VALUE;
+  private final boolean flex;
+  private boolean lastStickyReset = false;
+
+  public SparkMotor(MotorConfig config) {
+    super(config);
+    flex = config.controllerType == MotorControllerType.SPARK_FLEX;
+    SparkBase.MotorType motorType = config.motorKind == MotorKind.BRUSHED
+        ? SparkBase.MotorType.kBrushed
+        : SparkBase.MotorType.kBrushless;
+    spark = flex ? new SparkFlex(config.id, motorType) : new SparkMax(config.id, motorType);
+    closedLoop = spark.getClosedLoopController();
+    encoder = spark.getEncoder();
+    idleConfig = newConfig();
+    currentLimitConfig = newConfig();
+  }
+
+  private SparkBaseConfig newConfig() {
+    return flex ? new SparkFlexConfig() : new SparkMaxConfig();
+  }
+
+  @Override
+  public boolean applyConfiguration() {
+    SparkBaseConfig baseConfig = newConfig();
+    baseConfig.inverted(config.inverted);
+
+    // Apply brake mode if specified, otherwise default to brake
+    baseConfig.idleMode(isBrakeEnabled() ? IdleMode.kBrake : IdleMode.kCoast);
+
+    // Apply current limit if specified
+    if (config.currentLimitAmps != null) {
+      baseConfig.smartCurrentLimit(config.currentLimitAmps);
+    }
+
+    baseConfig.encoder.positionConversionFactor(1.0 / gearRatio);
+    baseConfig.encoder.velocityConversionFactor(1.0 / gearRatio / 60.0);
+    applyVelocityFilter(baseConfig);
+
+    // Apply PID gains if specified
+    if (config.kP != null) {
+      baseConfig.closedLoop.p(config.kP, ClosedLoopSlot.kSlot0);
+    }
+    if (config.kI != null) {
+      baseConfig.closedLoop.i(config.kI, ClosedLoopSlot.kSlot0);
+    }
+    if (config.kD != null) {
+      baseConfig.closedLoop.d(config.kD, ClosedLoopSlot.kSlot0);
+    }
+    if (config.kF != null) {
+      baseConfig.closedLoop.velocityFF(config.kF, ClosedLoopSlot.kSlot0);
+    }
+
+    applySignalPeriods(baseConfig);
+
+    if (spark.configure(baseConfig, ResetMode.kResetSafeParameters, PersistMode.kNoPersistParameters)
+        != REVLibError.kOk) {
+      return false;
+    }
+    // Clears the power-on reset warning, so a later sticky reset means a reboot mid-match
+    spark.clearFaults();
+    return true;
+  }
+
+  private void applyVelocityFilter(SparkBaseConfig baseConfig) {
+    int depth = config.encoderAverageDepth != null ? config.encoderAverageDepth : LOW_LATENCY_AVERAGE_DEPTH;
+    // A brushless Spark MAX measures velocity from the NEO's hall sensor; everything else is quadrature
+    if (!flex && config.motorKind == MotorKind.BRUSHLESS) {
+      baseConfig.encoder.uvwMeasurementPeriod(
+          config.encoderMeasurementPeriodMs != null ? config.encoderMeasurementPeriodMs : HALL_MEASUREMENT_PERIOD_MS);
+      baseConfig.encoder.uvwAverageDepth(depth);
+    } else {
+      baseConfig.encoder.quadratureMeasurementPeriod(
+          config.encoderMeasurementPeriodMs != null
+              ? config.encoderMeasurementPeriodMs
+              : QUADRATURE_MEASUREMENT_PERIOD_MS);
+      baseConfig.encoder.quadratureAverageDepth(depth);
+    }
+  }
+
+  private void applySignalPeriods(SparkBaseConfig baseConfig) {
+    int positionMs = periodMs(positionRateHz());
+    if (positionMs > 0) {
+      baseConfig.signals.primaryEncoderPositionPeriodMs(positionMs);
+    }
+    int velocityMs = periodMs(velocityRateHz());
+    if (velocityMs > 0) {
+      baseConfig.signals.primaryEncoderVelocityPeriodMs(velocityMs);
+    }
+    int currentMs = periodMs(currentRateHz());
+    if (currentMs > 0) {
+      baseConfig.signals.appliedOutputPeriodMs(currentMs);
+      baseConfig.signals.busVoltagePeriodMs(currentMs);
+      baseConfig.signals.outputCurrentPeriodMs(currentMs);
+    }
+    if (hasFollowers() && (currentMs <= 0 || currentMs > FOLLOWER_OUTPUT_PERIOD_MS)) {
+      baseConfig.signals.appliedOutputPeriodMs(FOLLOWER_OUTPUT_PERIOD_MS);
+    }
+    int temperatureMs = periodMs(temperatureRateHz());
+    if (temperatureMs > 0) {
+      baseConfig.signals.motorTemperaturePeriodMs(temperatureMs);
+    }
+  }
+
+  @Override
+  protected void applyFollowerFrames() {
+    int currentMs = periodMs(currentRateHz());
+    if (currentMs > 0 && currentMs <= FOLLOWER_OUTPUT_PERIOD_MS) {
+      return;
+    }
+    SparkBaseConfig followerFrames = newConfig();
+    followerFrames.signals.appliedOutputPeriodMs(FOLLOWER_OUTPUT_PERIOD_MS);
+    spark.configureAsync(followerFrames, ResetMode.kNoResetSafeParameters, PersistMode.kNoPersistParameters);
+  }
+
+  /** Converts a rate to a Spark signal period, or -1 to leave the REV default. */
+  private static int periodMs(double hz) {
+    if (hz == RATE_UNCHANGED) {
+      return -1;
+    }
+    if (hz <= 0.0) {
+      return SLOWEST_SIGNAL_PERIOD_MS;
+    }
+    return (int) Math.max(1, Math.min(SLOWEST_SIGNAL_PERIOD_MS, Math.round(1000.0 / hz)));
+  }
+
+  @Override
+  protected void applyVoltage(double volts) {
+    spark.setVoltage(volts);
+  }
+
+  @Override
+  protected void applyVelocity(double rps, double feedforwardVolts) {
+    closedLoop.setSetpoint(
+        rps, SparkBase.ControlType.kVelocity, ClosedLoopSlot.kSlot0, feedforwardVolts, ArbFFUnits.kVoltage);
+  }
+
+  @Override
+  protected void applyPosition(double rotations) {
+    closedLoop.setSetpoint(rotations, SparkBase.ControlType.kPosition, ClosedLoopSlot.kSlot0);
+  }
+
+  @Override
+  protected double readVelocityRps() {
+    return encoder.getVelocity();
+  }
+
+  @Override
+  protected double readPositionRotations() {
+    return encoder.getPosition();
+  }
+
+  @Override
+  protected void readElectricalInputs(MotorInputs inputs) {
+    double dutyCycle = spark.getAppliedOutput();
+    inputs.appliedVolts = dutyCycle * spark.getBusVoltage();
+    inputs.currentAmps = spark.getOutputCurrent();
+    // The Spark measures only output current; the battery supplies that times the duty cycle
+    inputs.supplyCurrentAmps = inputs.currentAmps * Math.abs(dutyCycle);
+    inputs.temperatureCelsius = spark.getMotorTemperature();
+  }
+
+  @Override
+  public void readFaults(MotorFaults faults) {
+    // REVLib reports no connection status, so connected is left as is
+    faults.activeFaults = spark.getFaults().rawBits;
+    faults.stickyFaults = spark.getStickyFaults().rawBits;
+    boolean stickyReset = spark.getStickyWarnings().hasReset;
+    faults.resetOccurred = stickyReset && !lastStickyReset;
+    lastStickyReset = stickyReset;
+  }
+
+  @Override
+  protected void applyNeutralMode(boolean brake) {
+    idleConfig.idleMode(brake ? IdleMode.kBrake : IdleMode.kCoast);
+    // Async so the loop never waits for the Spark's acknowledgement
+    spark.configureAsync(idleConfig, ResetMode.kNoResetSafeParameters, PersistMode.kNoPersistParameters);
+  }
+
+  @Override
+  protected void applySupplyLimit(double amps) {
+    // Sparks have no supply limit, so the budget caps output current at the same number. Supply
+    // current is output current times duty cycle, so the draw stays within the budget; at part
+    // throttle it is held lower than on a Talon with the same limit.
+    budgetLimitAmps = amps;
+    sendSmartCurrentLimit();
+  }
+
+  @Override
+  protected void applyStatorLimit(double amps) {
+    thermalLimitAmps = amps;
+    sendSmartCurrentLimit();
+  }
+
+  private void sendSmartCurrentLimit() {
+    currentLimitConfig.smartCurrentLimit((int) Math.min(budgetLimitAmps, thermalLimitAmps));
+    spark.configureAsync(currentLimitConfig, ResetMode.kNoResetSafeParameters, PersistMode.kNoPersistParameters);
+  }
+
+  @Override
+  protected boolean applyFollow(CanMotorWrapper leader, boolean opposeLeader) {
+    if (!(leader instanceof SparkMotor)) {
+      return false;
+    }
+    SparkBaseConfig followConfig = newConfig();
+    followConfig.follow(leader.config.id, opposeLeader);
+    return spark.configure(followConfig, ResetMode.kNoResetSafeParameters, PersistMode.kNoPersistParameters)
+        == REVLibError.kOk;
+  }
+
+  @Override
+  protected void applyStop() {
+    spark.stopMotor();
+  }
+}
@@ -0,0 +1,250 @@
+// COPY THIS FILE: Update package declaration when copying to your project
+// Example packages: frc.robot.drive, frc.robot.motor
+package frc.robot.drive;
+
+import com.ctre.phoenix6.BaseStatusSignal;
+import com.ctre.phoenix6.Utils;
+import com.ctre.phoenix6.configs.CurrentLimitsConfigs;
+import com.ctre.phoenix6.configs.MotorOutputConfigs;
+import com.ctre.phoenix6.configs.TalonFXConfiguration;
+import com.ctre.phoenix6.controls.Follower;
+import com.ctre.phoenix6.controls.PositionVoltage;
+import com.ctre.phoenix6.controls.VelocityVoltage;
+import com.ctre.phoenix6.controls.VoltageOut;
+import com.ctre.phoenix6.hardware.TalonFX;
+import com.ctre.phoenix6.signals.InvertedValue;
+import com.ctre.phoenix6.signals.MotorAlignmentValue;
+import com.ctre.phoenix6.signals.NeutralModeValue;
+import java.util.function.DoubleSupplier;
+
+/** CTRE Talon FX (Kraken X60, Falcon 500). */
+public final class TalonFxMotor extends CanMotorWrapper {
+  /** Phoenix 6 default rate for the output signals hardware followers track. */
+  private static final double FOLLOWER_SIGNAL_HZ = 100.0;
+
+  private final TalonFX talon;
+
+  private final VoltageOut voltageRequest = new VoltageOut(0.0);
+  private final VelocityVoltage velocityRequest = new VelocityVoltage(0.0);
+  private final PositionVoltage positionRequest = new PositionVoltage(0.0);
+  // Reused for neutral-mode changes so they don't touch any other config group
+  private final MotorOutputConfigs outputConfig = new MotorOutputConfigs();
+  // Same for runtime current-limit changes
+  private final CurrentLimitsConfigs currentLimitsConfig = new CurrentLimitsConfigs();
+
+  // Refreshed in bulk once registered with a SignalRefreshGroup
+  private final BaseStatusSignal positionSignal;
+  private final BaseStatusSignal velocitySignal;
+  private final BaseStatusSignal voltageSignal;
+  private final BaseStatusSignal currentSignal;
+  private final BaseStatusSignal supplyCurrentSignal;
+  private final BaseStatusSignal tempSignal;
+  // Followers copy whichever of these matches the leader's control request
+  private final BaseStatusSignal dutyCycleSignal;
+  private final BaseStatusSignal torqueCurrentSignal;
+  // Read only by the fault poller, so never part of the refresh group
+  private final BaseStatusSignal faultSignal;
+  private final BaseStatusSignal stickyFaultSignal;
+  // Pre-built for refreshAll, whose varargs would otherwise allocate an array per call
+  private final BaseStatusSignal[] faultSignals;
+  private final BaseStatusSignal[] singleSignal = new BaseStatusSignal[1];
+  private boolean signalsRegistered = false;
+
+  public TalonFxMotor(MotorConfig config) {
+    super(config);
+    talon = new TalonFX(config.id);
+    positionSignal = talon.getPosition();
+    velocitySignal = talon.getVelocity();
+    voltageSignal = talon.getMotorVoltage();
+    currentSignal = talon.getStatorCurrent();
+    supplyCurrentSignal = talon.getSupplyCurrent();
+    tempSignal = talon.getDeviceTemp();
+    dutyCycleSignal = talon.getDutyCycle();
+    torqueCurrentSignal = talon.getTorqueCurrent();
+    faultSignal = talon.getFaultField();
+    stickyFaultSignal = talon.getStickyFaultField();
+    faultSignals = new BaseStatusSignal[] {faultSignal, stickyFaultSignal};
+  }
+
+  @Override
+  public boolean applyConfiguration() {
+    TalonFXConfiguration fxConfig = new TalonFXConfiguration();
+    outputConfig.Inverted =
+        config.inverted ? InvertedValue.Clockwise_Positive : InvertedValue.CounterClockwise_Positive;
+
+    // Apply brake mode if specified, otherwise default to brake
+    outputConfig.NeutralMode = isBrakeEnabled() ? NeutralModeValue.Brake : NeutralModeValue.Coast;
+    fxConfig.MotorOutput = outputConfig;
+
+    // Apply current limit if specified
+    if (config.currentLimitAmps != null) {
+      currentLimitsConfig.StatorCurrentLimit = config.currentLimitAmps;
+      currentLimitsConfig.StatorCurrentLimitEnable = true;
+    }
+    fxConfig.CurrentLimits = currentLimitsConfig;
+
+    fxConfig.Feedback.SensorToMechanismRatio = gearRatio;
+
+    // Apply PID gains if specified
+    if (config.kP != null) {
+      fxConfig.Slot0.kP = config.kP;
+    }
+    if (config.kI != null) {
+      fxConfig.Slot0.kI = config.kI;
+    }
+    if (config.kD != null) {
+      fxConfig.Slot0.kD = config.kD;
+    }
+    if (config.kF != null) {
+      fxConfig.Slot0.kV = config.kF;
+    }
+
+    return talon.getConfigurator().apply(fxConfig).isOK() && applySignalRates();
+  }
+
+  private boolean applySignalRates() {
+    boolean ok = setRate(positionSignal, positionRateHz());
+    ok &= setRate(velocitySignal, velocityRateHz());
+    ok &= setRate(voltageSignal, hasFollowers() ? followerRateHz(currentRateHz()) : currentRateHz());
+    ok &= setRate(currentSignal, currentRateHz());
+    ok &= setRate(supplyCurrentSignal, currentRateHz());
+    ok &= setRate(tempSignal, temperatureRateHz());
+    ok &= setRate(faultSignal, faultRateHz());
+    ok &= setRate(stickyFaultSignal, faultRateHz());
+    if (hasFollowers()) {
+      ok &= setRate(dutyCycleSignal, FOLLOWER_SIGNAL_HZ);
+      ok &= setRate(torqueCurrentSignal, FOLLOWER_SIGNAL_HZ);
+    }
+    if (optimizeBusUtilization()) {
+      // Disables every signal that was not given an explicit rate above
+      ok &= talon.optimizeBusUtilization().isOK();
+    }
+    return ok;
+  }
+
+  @Override
+  protected void applyFollowerFrames() {
+    // An explicit rate also re-enables signals optimizeBusUtilization() already switched off
+    BaseStatusSignal.setUpdateFrequencyForAll(FOLLOWER_SIGNAL_HZ, dutyCycleSignal, torqueCurrentSignal);
+    setRate(voltageSignal, followerRateHz(currentRateHz()));
+  }
+
+  /** A leader's output signal rate: at least the default followers need. */
+  private static double followerRateHz(double hz) {
+    return Math.max(hz, FOLLOWER_SIGNAL_HZ);
+  }
+
+  private static boolean setRate(BaseStatusSignal signal, double hz) {
+    return hz == RATE_UNCHANGED || signal.setUpdateFrequency(hz).isOK();
+  }
+
+  @Override
+  protected void applyVoltage(double volts) {
+    talon.setControl(voltageRequest.withOutput(volts));
+  }
+
+  @Override
+  protected void applyVelocity(double rps, double feedforwardVolts) {
+    talon.setControl(velocityRequest.withVelocity(rps).withFeedForward(feedforwardVolts));
+  }
+
+  @Override
+  protected void applyPosition(double rotations) {
+    talon.setControl(positionRequest.withPosition(rotations));
+  }
+
+  @Override
+  protected double readVelocityRps() {
+    return signalValue(velocitySignal);
+  }
+
+  @Override
+  protected double readPositionRotations() {
+    return signalValue(positionSignal);
+  }
+
+  @Override
+  protected double readTimestampSeconds() {
+    // Time the Talon measured the position, converted from Phoenix time to FPGA time
+    return Utils.currentTimeToFPGATime(positionSignal.getTimestamp().getTime());
+  }
+
+  @Override
+  protected DoubleSupplier odometryPositionSource(SignalRefreshGroup odometrySignals) {
+    // A clone, so the odometry thread never refreshes the signal object the main loop reads
+    BaseStatusSignal odometryPosition = talon.getPosition().clone();
+    odometrySignals.register(odometryPosition);
+    return odometryPosition::getValueAsDouble;
+  }
+
+  @Override
+  protected void readElectricalInputs(MotorInputs inputs) {
+    inputs.appliedVolts = signalValue(voltageSignal);
+    inputs.currentAmps = signalValue(currentSignal);
+    inputs.supplyCurrentAmps = signalValue(supplyCurrentSignal);
+    inputs.temperatureCelsius = signalValue(tempSignal);
+  }
+
+  @Override
+  public void registerSignals(SignalRefreshGroup group) {
+    group.register(positionSignal, velocitySignal, voltageSignal, currentSignal, supplyCurrentSignal, tempSignal);
+    signalsRegistered = true;
+  }
+
+  @Override
+  public void readFaults(MotorFaults faults) {
+    // Fails with a timeout once the Talon's frames stop arriving
+    faults.connected = BaseStatusSignal.refreshAll(faultSignals).isOK();
+    faults.activeFaults = (long) faultSignal.getValueAsDouble();
+    faults.stickyFaults = (long) stickyFaultSignal.getValueAsDouble();
+    faults.resetOccurred = talon.hasResetOccurred();
+  }
+
+  @Override
+  protected void applyNeutralMode(boolean brake) {
+    // Only the MotorOutput group, and a 0 timeout so the apply is queued instead of awaited
+    outputConfig.NeutralMode = brake ? NeutralModeValue.Brake : NeutralModeValue.Coast;
+    talon.getConfigurator().apply(outputConfig, 0.0);
+  }
+
+  @Override
+  protected void applySupplyLimit(double amps) {
+    // A supply limit, which is what the battery sees; the configured stator limit stays as is.
+    // The lower limit matches so the Talon holds this limit instead of dropping to its default.
+    currentLimitsConfig.SupplyCurrentLimit = amps;
+    currentLimitsConfig.SupplyCurrentLowerLimit = amps;
+    currentLimitsConfig.SupplyCurrentLimitEnable = true;
+    talon.getConfigurator().apply(currentLimitsConfig, 0.0);
+  }
+
+  @Override
+  protected void applyStatorLimit(double amps) {
+    currentLimitsConfig.StatorCurrentLimit = amps;
+    currentLimitsConfig.StatorCurrentLimitEnable = true;
+    talon.getConfigurator().apply(currentLimitsConfig, 0.0);
+  }
+
+  @Override
+  protected boolean applyFollow(CanMotorWrapper leader, boolean opposeLeader) {
+    // Any Phoenix 6 motor controller can follow another on the same bus
+    if (!(leader instanceof TalonFxMotor || leader instanceof TalonFxsMotor)) {
+      return false;
+    }
+    MotorAlignmentValue alignment = opposeLeader ? MotorAlignmentValue.Opposed : MotorAlignmentValue.Aligned;
+    return talon.setControl(new Follower(leader.config.id, alignment)).isOK();
+  }
+
+  @Override
+  protected void applyStop() {
+    talon.stopMotor();
+  }
+
+  private double signalValue(BaseStatusSignal signal) {
+    // Without a refresh group nobody else refreshes the signal, so fetch it here.
+    if (!signalsRegistered) {
+      singleSignal[0] = signal;
+      BaseStatusSignal.refreshAll(singleSignal);
+    }
+    return signal.getValueAsDouble();
+  }
+}
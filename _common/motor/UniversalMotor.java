@@ -2,18 +2,99 @@
 // Example packages: frc.robot.drive, frc.robot.motor
 package frc.robot.drive;
 
+import java.util.function.DoubleSupplier;
+
 public interface UniversalMotor {
+  /**
+   * Pushes the full configuration to the controller. Blocking, and safe to run on a worker
+   * thread; {@link MotorFactory} runs these in parallel at boot via {@link MotorConfigurator}.
+   *
+   * @return false if the controller rejected or never acknowledged the configuration
+   */
+  default boolean applyConfiguration() {
+    return true;
+  }
+
   void setVoltage(double volts);
 
   void setVelocityRps(double rps);
 
+  /**
+   * Velocity request with extra volts added on top of the controller's own loop, e.g. kS/kV/kA
+   * feedforward computed on the RIO. Motors that can't add voltage ignore {@code feedforwardVolts}.
+   */
+  default void setVelocityRps(double rps, double feedforwardVolts) {
+    setVelocityRps(rps);
+  }
+
   void setPositionRotations(double rotations);
 
   double getVelocityRps();
 
   double getPositionRotations();
 
+  /**
+   * Fills a caller-owned inputs snapshot with this cycle's readings, including the device
+   * timestamp of the sample. Call once per loop and have every consumer read from the snapshot
+   * rather than the individual getters.
+   */
+  void updateInputs(MotorInputs inputs);
+
+  /**
+   * Registers this motor's vendor status signals with a per-loop refresh group. Once
+   * registered, the getters return the values cached by the last
+   * {@link SignalRefreshGroup#refreshAll()} call. Motors without refreshable signals ignore it.
+   */
+  default void registerSignals(SignalRefreshGroup group) {}
+
+  /**
+   * Returns a reader of this motor's mechanism position that a separate odometry thread may
+   * call. Phoenix 6 motors register a private copy of their position signal with
+   * {@code odometrySignals}, which that thread refreshes before each sample; other motors read
+   * vendor state that is already safe to share between threads.
+   */
+  default DoubleSupplier createOdometryPositionSource(SignalRefreshGroup odometrySignals) {
+    return this::getPositionRotations;
+  }
+
+  /**
+   * Puts this motor in the controller's native follower mode so it mirrors {@code leader}
+   * without being commanded. Direction follows each motor's own {@code inverted} setting.
+   *
+   * @return false if this motor can't follow that leader in hardware; keep commanding it then
+   */
+  default boolean follow(UniversalMotor leader) {
+    return false;
+  }
+
   void setBrake(boolean brake);
 
+  /**
+   * Changes the motor's current limit at runtime, e.g. from a {@link CurrentBudgetSupervisor}.
+   * The limit is on supply (battery-side) current, so the same number means the same draw on
+   * every controller: Phoenix 6 and the Talon SRX limit supply current directly. Sparks have no
+   * supply limit and cap output current at the same number. Supply current never exceeds output
+   * current, so a Spark never draws more than the limit, but at part throttle it stays further
+   * below it than a Talon would. Must not block the loop. Motors without a runtime limit ignore
+   * it.
+   */
+  default void setCurrentLimit(double amps) {}
+
+  /**
+   * Fills a caller-owned snapshot with the controller's fault state from status frames it
+   * already sends, for a {@link FaultPoller}. Motors that report nothing leave it healthy.
+   */
+  default void readFaults(MotorFaults faults) {}
+
   void stop();
+
+  /** Control frames sent to the controller; see setpoint-change suppression in CanMotorWrapper. */
+  default long getFramesSent() {
+    return 0;
+  }
+
+  /** Setpoint updates skipped because they matched the last frame sent. */
+  default long getFramesSuppressed() {
+    return 0;
+  }
 }
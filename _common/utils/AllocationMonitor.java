@@ -0,0 +1,76 @@
+package frc.robot.utils;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Measures the heap the calling thread allocates inside a section of the loop.
+ *
+ * <p>Wrap a hot path with {@link #start()} and {@link #stop()} and publish
+ * {@link #getLastBytes()}. A path that is meant to be allocation-free should read zero every
+ * loop once the robot has warmed up; anything else is garbage the collector will have to pause
+ * for later. The counter comes from the JVM's per-thread allocation tracking, so measuring costs
+ * two native calls and allocates nothing itself. On JVMs without that tracking the monitor reads
+ * zero and {@link #isSupported()} is false.
+ */
+public class AllocationMonitor {
+  private final com.sun.management.ThreadMXBean threadBean;
+  private long startBytes = 0;
+  private long lastBytes = 0;
+  private long allocatingSections = 0;
+
+  public AllocationMonitor() {
+    ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+    if (bean instanceof com.sun.management.ThreadMXBean
+        && ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported()) {
+      threadBean = (com.sun.management.ThreadMXBean) bean;
+      threadBean.setThreadAllocatedMemoryEnabled(true);
+    } else {
+      threadBean = null;
+    }
+  }
+
+  public boolean isSupported() {
+    return threadBean != null;
+  }
+
+  public void start() {
+    if (threadBean != null) {
+      startBytes = threadBean.getCurrentThreadAllocatedBytes();
+    }
+  }
+
+  public void stop() {
+    if (threadBean == null) {
+      return;
+    }
+    lastBytes = threadBean.getCurrentThreadAllocatedBytes() - startBytes;
+    if (lastBytes > 0) {
+      allocatingSections++;
+    }
+  }
+
+  /**
+   * Runs {@code section} {@code times} times between one {@link #start()} and {@link #stop()} and
+   * returns the bytes allocated. Used by the allocation tests; warm the section up with a few
+   * calls first so the JIT has compiled it and only real allocations are counted.
+   */
+  public long measure(Runnable section, int times) {
+    start();
+    for (int i = 0; i < times; i++) {
+      section.run();
+    }
+    stop();
+    return lastBytes;
+  }
+
+  /** Bytes allocated between the last {@link #start()} and {@link #stop()}. */
+  public long getLastBytes() {
+    return lastBytes;
+  }
+
+  /** Number of measured sections that allocated anything since boot. */
+  public long getAllocatingSections() {
+    return allocatingSections;
+  }
+}